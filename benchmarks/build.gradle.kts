@@ -0,0 +1,213 @@
+import io.github.skykatik.staticbundle.plugin.ConcatStrategy
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy
+import io.github.skykatik.staticbundle.plugin.SourceSetSettings
+import java.util.*
+
+plugins {
+    val isJitpack = System.getenv("JITPACK") == "true"
+
+    id("${if (isJitpack) "com" else "io"}.github.skykatik.staticbundle")
+    id("me.champeau.jmh") version "0.7.1"
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+jmh {
+    // gc.alloc.rate.norm is the metric to watch for allocation-free accessors
+    profilers.add("gc")
+}
+
+// Size of the generated catalog, e.g. ./gradlew :benchmarks:jmh -Pcatalog.keys=10000 -Pcatalog.locales=8
+val catalogKeys = providers.gradleProperty("catalog.keys").getOrElse("100").toInt()
+val catalogLocales = providers.gradleProperty("catalog.locales").getOrElse("2").toInt()
+val catalogArgs = providers.gradleProperty("catalog.args").getOrElse("2").toInt()
+
+val localePool = listOf(
+    Locale.ROOT, Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH, Locale.ITALIAN, Locale("es"),
+    Locale("nl"), Locale("pt"), Locale("sv"), Locale("da"), Locale("fi"), Locale("nb"),
+    Locale("el"), Locale("hu"), Locale("tr"), Locale("bg"), Locale("et"), Locale("eu")
+)
+require(catalogLocales in 1..localePool.size) { "catalog.locales must be in range [1, ${localePool.size}]" }
+require(catalogArgs >= 0) { "catalog.args must not be negative" }
+val locales = localePool.take(catalogLocales)
+
+// Bundles of the catalog: bench*.properties for the processor and, optionally,
+// rb*.properties with the same messages in MessageFormat syntax
+fun writeCatalog(resources: File, keys: Int, args: Int, localeNames: List<String>, resourceBundles: Boolean) {
+    resources.deleteRecursively()
+    resources.mkdirs()
+
+    val names = (0 until args).map { "a$it" }
+    for (locale in localeNames) {
+        val suffix = if (locale.isEmpty()) "" else "_$locale"
+        val prefix = if (locale.isEmpty()) "" else "[$locale] "
+        val reference = locale.isEmpty()
+
+        // Arguments of reference bundle declare the names, others refer them by index
+        val declared = names.indices.joinToString(" ") { if (reference) "{$it:${names[it]}}" else "{$it}" }
+        val count = if (reference) "{$args:count:long}" else "{$args}"
+        val ordinalArgs = names.joinToString(", ")
+
+        File(resources, "bench$suffix.properties").bufferedWriter().use { out ->
+            out.appendLine("bench.simple = ${prefix}Simple message")
+            out.appendLine("bench.ordinal = ${prefix}Message with $declared arguments")
+            out.appendLine("bench.plural[0] = ${prefix}${if (reference) "{0:amount:long}" else "{0}"} item")
+            out.appendLine("bench.plural[1] = ${prefix}{0} items")
+            out.appendLine("bench.nested = ${prefix}$declared $count: " +
+                    "#{bench.ordinal($ordinalArgs)} and #{bench.plural[count]}")
+            for (key in 0 until keys) {
+                out.appendLine("filler.m$key = ${prefix}Filler message $key with $declared arguments")
+            }
+        }
+
+        if (!resourceBundles) {
+            continue
+        }
+
+        // Nested messages are formatted by the caller
+        val patternArgs = names.indices.joinToString(" ") { "{$it}" }
+        File(resources, "rb$suffix.properties").bufferedWriter().use { out ->
+            out.appendLine("bench.simple = ${prefix}Simple message")
+            out.appendLine("bench.ordinal = ${prefix}Message with $patternArgs arguments")
+            out.appendLine("bench.plural = ${prefix}{0,choice,0#{0} items|1#{0} item|1<{0} items}")
+            out.appendLine("bench.nested = ${prefix}$patternArgs {$args}: {${args + 1}} and {${args + 2}}")
+            for (key in 0 until keys) {
+                out.appendLine("filler.m$key = ${prefix}Filler message $key with $patternArgs arguments")
+            }
+        }
+    }
+}
+
+fun SourceSetSettings.catalogSettings(className: String) {
+    resourceFilenameFormat.set("bench{locale}.properties")
+    messageSourceClassName.set(className)
+
+    settings {
+        for (catalogLocale in locales) {
+            setting {
+                locale.set(catalogLocale)
+                pluralForms.set(2)
+                pluralFunction.set("value == 1 ? 0 : 1")
+            }
+        }
+    }
+}
+
+val generateCatalog = tasks.register("generateCatalog") {
+    val keys = catalogKeys
+    val args = catalogArgs
+    val localeNames = locales.map { it.toString() }
+    val resourcesDir = layout.buildDirectory.dir("generated/catalog/resources")
+    val sourcesDir = layout.buildDirectory.dir("generated/catalog/java")
+
+    inputs.property("keys", keys)
+    inputs.property("args", args)
+    inputs.property("locales", localeNames)
+    outputs.dir(resourcesDir)
+    outputs.dir(sourcesDir)
+
+    doLast {
+        writeCatalog(resourcesDir.get().asFile, keys, args, localeNames, true)
+
+        // Adapter for accessors, which signatures depend on the number of arguments
+        val sources = sourcesDir.get().asFile.resolve("io/github/skykatik/staticbundle/benchmarks")
+        sources.deleteRecursively()
+        sources.mkdirs()
+        val parameters = (0 until args).joinToString(", ") { "args[$it]" }
+        val nestedParameters = if (args == 0) "count" else "$parameters, count"
+        File(sources, "Catalog.java").writeText("""
+            |package io.github.skykatik.staticbundle.benchmarks;
+            |
+            |final class Catalog {
+            |    static final int ARGS = $args;
+            |
+            |    static String ordinal(BenchMessageSource source, String[] args) {
+            |        return source.benchOrdinal($parameters);
+            |    }
+            |
+            |    static String nested(BenchMessageSource source, String[] args, long count) {
+            |        return source.benchNested($nestedParameters);
+            |    }
+            |}
+            |""".trimMargin())
+    }
+}
+
+sourceSets {
+    main {
+        resources.srcDir(generateCatalog.map { layout.buildDirectory.dir("generated/catalog/resources") })
+    }
+    named("jmh") {
+        java.srcDir(generateCatalog.map { layout.buildDirectory.dir("generated/catalog/java") })
+    }
+}
+
+staticBundle {
+    sourceSetSettings.create("main") {
+        catalogSettings("io.github.skykatik.staticbundle.benchmarks.BenchMessageSource")
+    }
+}
+
+// Startup harness: catalogs of increasing size, each one is generated with every concat strategy
+// into its own source set and measured in fresh JVMs,
+// e.g. ./gradlew :benchmarks:startupBenchmark -Pstartup.sizes=100,1000,5000 -Pstartup.concat=INDY,BUILDER
+val startupSizes = providers.gradleProperty("startup.sizes").getOrElse("100,1000,5000")
+    .split(',').map { it.trim().toInt() }
+val startupForks = providers.gradleProperty("startup.forks").getOrElse("5").toInt()
+val startupStrategy = providers.gradleProperty("startup.strategy").getOrElse("SWITCH")
+val startupConcat = providers.gradleProperty("startup.concat").getOrElse("INDY,BUILDER")
+    .split(',').map { ConcatStrategy.valueOf(it.trim()) }
+
+val startup = sourceSets.create("startup")
+val startupCatalogs = startupSizes.flatMap { size -> startupConcat.map { concat -> size to concat } }.map { (size, concat) ->
+    val suffix = "$size${concat.name.lowercase().replaceFirstChar { it.uppercase() }}"
+    val name = "startupCatalog$suffix"
+    val generate = tasks.register("generateStartupCatalog$suffix") {
+        val localeNames = locales.map { it.toString() }
+        val args = catalogArgs
+        val resourcesDir = layout.buildDirectory.dir("generated/$name/resources")
+
+        inputs.property("args", args)
+        inputs.property("locales", localeNames)
+        outputs.dir(resourcesDir)
+
+        doLast {
+            writeCatalog(resourcesDir.get().asFile, size, args, localeNames, false)
+        }
+    }
+
+    val sourceSet = sourceSets.create(name) {
+        resources.srcDir(generate.map { layout.buildDirectory.dir("generated/$name/resources") })
+    }
+    dependencies.add(sourceSet.implementationConfigurationName, project(":core"))
+
+    val className = "io.github.skykatik.staticbundle.startup.Catalog${suffix}MessageSource"
+    staticBundle.sourceSetSettings.create(name) {
+        catalogSettings(className)
+        generationStrategy.set(GenerationStrategy.valueOf(startupStrategy))
+        concatStrategy.set(concat)
+    }
+    className to sourceSet
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "benchmark"
+    description = "Measures class loading, initialization and first calls of generated catalogs in fresh JVMs."
+    classpath = startup.runtimeClasspath
+    mainClass.set("io.github.skykatik.staticbundle.benchmarks.StartupBenchmark")
+    systemProperty("startup.forks", startupForks)
+
+    // Each catalog runs with its own classpath, so the probe never sees other catalogs
+    for ((className, sourceSet) in startupCatalogs) {
+        inputs.files(sourceSet.runtimeClasspath)
+        argumentProviders.add(CommandLineArgumentProvider {
+            listOf(className, (startup.runtimeClasspath + sourceSet.runtimeClasspath).asPath)
+        })
+    }
+}
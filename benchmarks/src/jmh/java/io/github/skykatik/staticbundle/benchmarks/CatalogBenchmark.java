@@ -0,0 +1,133 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares generated accessors with {@link ResourceBundle} and {@link MessageFormat}
+ * on the same generated catalog. Every invocation switches to the next locale and
+ * plural amount. Size of the catalog is configured by {@code catalog.keys},
+ * {@code catalog.locales} and {@code catalog.args} Gradle properties.
+ *
+ * <p>{@code MessageFormat} is not thread-safe, so resource bundle variants create
+ * a new one for each message, as {@code MessageFormat.format} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class CatalogBenchmark {
+
+    static final long[] AMOUNTS = {0, 1, 2, 5, 21, 101, 999};
+
+    @State(Scope.Benchmark)
+    public static class Catalogs {
+        BenchMessageSource[] sources;
+        ResourceBundle[] bundles;
+        Locale[] locales;
+
+        @Setup
+        public void setup() {
+            var localeTags = BenchMessageSource.LocaleTag.values();
+            var control = ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+            sources = new BenchMessageSource[localeTags.length];
+            bundles = new ResourceBundle[localeTags.length];
+            locales = new Locale[localeTags.length];
+            for (int i = 0; i < localeTags.length; i++) {
+                Locale locale = localeTags[i].locale();
+                sources[i] = BenchMessageSource.forTag(localeTags[i]);
+                bundles[i] = ResourceBundle.getBundle("rb", locale, control);
+                locales[i] = locale;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        String[] args;
+        Object[] formatArgs;
+        int locale;
+        int amount;
+
+        @Setup
+        public void setup() {
+            args = new String[Catalog.ARGS];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = "arg" + i;
+            }
+            formatArgs = new Object[args.length + 3];
+            System.arraycopy(args, 0, formatArgs, 0, args.length);
+        }
+
+        int nextLocale(int count) {
+            int i = locale + 1;
+            if (i == count) {
+                i = 0;
+            }
+            return locale = i;
+        }
+
+        long nextAmount() {
+            int i = amount + 1;
+            if (i == AMOUNTS.length) {
+                i = 0;
+            }
+            amount = i;
+            return AMOUNTS[i];
+        }
+    }
+
+    @Benchmark
+    public String ordinal(Catalogs catalogs, Cursor cursor) {
+        var source = catalogs.sources[cursor.nextLocale(catalogs.sources.length)];
+        return Catalog.ordinal(source, cursor.args);
+    }
+
+    @Benchmark
+    public String ordinalResourceBundle(Catalogs catalogs, Cursor cursor) {
+        int i = cursor.nextLocale(catalogs.bundles.length);
+        return format(catalogs, i, "bench.ordinal", (Object[]) cursor.args);
+    }
+
+    @Benchmark
+    public String plural(Catalogs catalogs, Cursor cursor) {
+        var source = catalogs.sources[cursor.nextLocale(catalogs.sources.length)];
+        return source.benchPlural(cursor.nextAmount());
+    }
+
+    @Benchmark
+    public String pluralResourceBundle(Catalogs catalogs, Cursor cursor) {
+        int i = cursor.nextLocale(catalogs.bundles.length);
+        return format(catalogs, i, "bench.plural", cursor.nextAmount());
+    }
+
+    @Benchmark
+    public String nested(Catalogs catalogs, Cursor cursor) {
+        var source = catalogs.sources[cursor.nextLocale(catalogs.sources.length)];
+        return Catalog.nested(source, cursor.args, cursor.nextAmount());
+    }
+
+    @Benchmark
+    public String nestedResourceBundle(Catalogs catalogs, Cursor cursor) {
+        int i = cursor.nextLocale(catalogs.bundles.length);
+        long amount = cursor.nextAmount();
+        String[] args = cursor.args;
+        Object[] formatArgs = cursor.formatArgs;
+        formatArgs[args.length] = amount;
+        formatArgs[args.length + 1] = format(catalogs, i, "bench.ordinal", (Object[]) args);
+        formatArgs[args.length + 2] = format(catalogs, i, "bench.plural", amount);
+        return format(catalogs, i, "bench.nested", formatArgs);
+    }
+
+    static String format(Catalogs catalogs, int i, String key, Object... args) {
+        String pattern = catalogs.bundles[i].getString(key);
+        return new MessageFormat(pattern, catalogs.locales[i]).format(args);
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Same as {@link CatalogBenchmark}, but all available processors share the catalogs.
+ * Shows contention on {@link java.util.ResourceBundle} cache and on allocation.
+ */
+@Threads(Threads.MAX)
+public class ContendedCatalogBenchmark extends CatalogBenchmark {
+}
@@ -0,0 +1,88 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Negotiates locale of the generated catalog from typical {@code Accept-Language} headers
+ * and {@link Locale} objects, compared with {@link Locale#lookup}. Header variants pass
+ * a {@link StringBuilder}, so the cache of generated {@code resolve} is bypassed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolveLocaleTagBenchmark {
+
+    static final String[] HEADERS = {
+            "en-US,en;q=0.9",
+            "de-DE,de;q=0.9,en-US;q=0.8,en;q=0.7",
+            "fr-CH, fr;q=0.9, en;q=0.8, de;q=0.7, *;q=0.5",
+            "pt-BR,pt;q=0.9",
+            "zh-Hant-TW;q=0.8, ja;q=0.6"
+    };
+
+    static final Locale[] LOCALES = {
+            Locale.US, Locale.GERMANY, Locale.CANADA_FRENCH, Locale.forLanguageTag("pt-BR"), Locale.TAIWAN
+    };
+
+    StringBuilder[] headers;
+    List<Locale> declared;
+    int index;
+
+    @Setup
+    public void setup() {
+        headers = new StringBuilder[HEADERS.length];
+        for (int i = 0; i < HEADERS.length; i++) {
+            headers[i] = new StringBuilder(HEADERS[i]);
+        }
+
+        declared = new ArrayList<>();
+        for (var localeTag : BenchMessageSource.LocaleTag.values()) {
+            declared.add(localeTag.locale());
+        }
+    }
+
+    int next() {
+        int i = index + 1;
+        if (i == HEADERS.length) {
+            i = 0;
+        }
+        return index = i;
+    }
+
+    @Benchmark
+    public BenchMessageSource.LocaleTag resolveHeader() {
+        return BenchMessageSource.LocaleTag.resolve(headers[next()]);
+    }
+
+    @Benchmark
+    public BenchMessageSource.LocaleTag resolveCachedHeader() {
+        return BenchMessageSource.LocaleTag.resolve(HEADERS[next()]);
+    }
+
+    @Benchmark
+    public BenchMessageSource.LocaleTag lookupHeader() {
+        var ranges = Locale.LanguageRange.parse(HEADERS[next()]);
+        Locale locale = Locale.lookup(ranges, declared);
+        return BenchMessageSource.LocaleTag.of((locale != null ? locale : Locale.ROOT).toString());
+    }
+
+    @Benchmark
+    public BenchMessageSource.LocaleTag resolveLocale() {
+        return BenchMessageSource.LocaleTag.resolve(LOCALES[next()]);
+    }
+
+    @Benchmark
+    public BenchMessageSource.LocaleTag lookupLocale() {
+        var ranges = Locale.LanguageRange.parse(LOCALES[next()].toLanguageTag());
+        Locale locale = Locale.lookup(ranges, declared);
+        return BenchMessageSource.LocaleTag.of((locale != null ? locale : Locale.ROOT).toString());
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Switches locale on every invocation, like a server which serves
+ * each request or broadcast recipient in its own locale. With the
+ * shared per-locale instances {@code gc.alloc.rate.norm} must stay at zero.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WithLocaleTagBenchmark {
+
+    BenchMessageSource source;
+    BenchMessageSource.LocaleTag[] localeTags;
+    int index;
+
+    @Setup
+    public void setup() {
+        localeTags = BenchMessageSource.LocaleTag.values();
+        source = BenchMessageSource.forTag(localeTags[0]);
+    }
+
+    BenchMessageSource.LocaleTag nextLocaleTag() {
+        int i = index + 1;
+        if (i == localeTags.length) {
+            i = 0;
+        }
+        index = i;
+        return localeTags[i];
+    }
+
+    @Benchmark
+    public BenchMessageSource withLocaleTag() {
+        return source = source.withLocaleTag(nextLocaleTag());
+    }
+
+    @Benchmark
+    public BenchMessageSource forTag() {
+        return BenchMessageSource.forTag(nextLocaleTag());
+    }
+
+    @Benchmark
+    public String withLocaleTagAndAccessor() {
+        return source.withLocaleTag(nextLocaleTag()).benchSimple();
+    }
+}
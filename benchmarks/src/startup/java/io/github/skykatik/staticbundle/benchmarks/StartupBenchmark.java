@@ -0,0 +1,113 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Launches {@link StartupProbe} in fresh JVMs for each catalog and prints medians of its measurements.
+ * One more JVM per catalog runs with tracing of call site linkage to count
+ * {@code StringConcatFactory} bootstraps, which are linked by the catalog classes.
+ *
+ * <p>Arguments are pairs of message source class name and classpath.
+ */
+public final class StartupBenchmark {
+
+    static final String TRACE_PROPERTY = "java.lang.invoke.MethodHandle.TRACE_METHOD_LINKAGE";
+
+    public static void main(String[] args) throws Exception {
+        int forks = Integer.getInteger("startup.forks", 5);
+        if (args.length == 0 || args.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected pairs of class name and classpath");
+        }
+
+        System.out.printf("%-32s %6s %7s %9s %9s %9s %11s %9s %9s %9s %10s %9s %9s %9s%n",
+                "Catalog", "keys", "locales", "load ms", "init ms", "inst. ms", "1st call ms",
+                "median us", "max us", "2nd ms", "meta KiB", "cp", "KiB", "concat");
+
+        for (int i = 0; i < args.length; i += 2) {
+            String className = args[i];
+            String classpath = args[i + 1];
+
+            var runs = new ArrayList<Map<String, Long>>(forks);
+            for (int fork = 0; fork < forks; fork++) {
+                runs.add(parse(run(className, classpath, false)));
+            }
+
+            long concatLinkages = 0;
+            for (String line : run(className, classpath, true)) {
+                // linkCallSite <caller> java.lang.invoke.StringConcatFactory.makeConcatWithConstants(...)
+                if (line.startsWith("linkCallSite ") && line.contains("StringConcatFactory")) {
+                    String caller = line.substring("linkCallSite ".length(), line.indexOf(' ', "linkCallSite ".length()));
+                    if (caller.equals(className) || caller.startsWith(className + '$')) {
+                        concatLinkages++;
+                    }
+                }
+            }
+
+            Map<String, Long> first = runs.get(0);
+            System.out.printf("%-32s %6d %7d %9.2f %9.2f %9.2f %11.2f %9.1f %9.1f %9.2f %10.1f %9d %9.1f %9d%n",
+                    className.substring(className.lastIndexOf('.') + 1), first.get("accessors"), first.get("locales"),
+                    median(runs, "load") / 1e6, median(runs, "init") / 1e6, median(runs, "instances") / 1e6,
+                    median(runs, "firstCalls") / 1e6, median(runs, "firstCallMedian") / 1e3,
+                    median(runs, "firstCallMax") / 1e3, median(runs, "secondCalls") / 1e6,
+                    median(runs, "metaspace") / 1024.0, first.get("constantPool"),
+                    first.get("classBytes") / 1024.0, concatLinkages);
+        }
+    }
+
+    static List<String> run(String className, String classpath, boolean trace) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(classpath);
+        if (trace) {
+            command.add("-D" + TRACE_PROPERTY + "=true");
+        }
+        command.add(StartupProbe.class.getName());
+        command.add(className);
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        var lines = new ArrayList<String>();
+        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Probe of " + className + " exited with code " + exitCode + ":\n" +
+                    String.join("\n", lines));
+        }
+        return lines;
+    }
+
+    static Map<String, Long> parse(List<String> lines) {
+        var result = new HashMap<String, Long>();
+        for (String line : lines) {
+            int eq = line.indexOf('=');
+            if (eq != -1) {
+                result.put(line.substring(0, eq), Long.parseLong(line.substring(eq + 1)));
+            }
+        }
+        return result;
+    }
+
+    static double median(List<Map<String, Long>> runs, String name) {
+        long[] values = new long[runs.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = runs.get(i).get(name);
+        }
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.skykatik.staticbundle.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Runs in a fresh JVM and measures cold start of one generated message source:
+ * loading of the class, its initialization (verification and {@code <clinit>}),
+ * obtaining instances of all locales and the first and second call of every accessor.
+ * Results are printed as {@code name=value} lines, which are read by {@link StartupBenchmark}.
+ *
+ * <p>Accessors are invoked by reflection, so first calls also include creation of method accessor,
+ * second calls show the cost of reflective dispatch.
+ */
+public final class StartupProbe {
+
+    public static void main(String[] args) throws Exception {
+        String className = args[0];
+        ClassLoader loader = StartupProbe.class.getClassLoader();
+
+        // Warm up reflection, management and string concatenation, so their one-time
+        // costs are not attributed to the catalog, as in any running application
+        List<MemoryPoolMXBean> pools = metaspacePools();
+        StartupProbe.class.getDeclaredMethod("noop").invoke(null);
+        String warmUp = "pools: " + pools.size();
+        long metaspaceBefore = metaspaceUsed(pools);
+
+        long start = System.nanoTime();
+        Class<?> type = Class.forName(className, false, loader);
+        long loaded = System.nanoTime();
+        Class.forName(className, true, loader);
+        long initialized = System.nanoTime();
+
+        Class<?> localeTagType = Class.forName(className + "$LocaleTag", true, loader);
+        Object[] localeTags = localeTagType.getEnumConstants();
+        Method forTag = type.getMethod("forTag", localeTagType);
+
+        long instancesStart = System.nanoTime();
+        Object[] instances = new Object[localeTags.length];
+        for (int i = 0; i < localeTags.length; i++) {
+            instances[i] = forTag.invoke(null, localeTags[i]);
+        }
+        long instancesEnd = System.nanoTime();
+
+        List<Method> accessors = accessors(type);
+        long[] firstCalls = new long[accessors.size() * instances.length];
+        long secondCalls = 0;
+        int call = 0;
+        for (Object instance : instances) {
+            for (Method accessor : accessors) {
+                Object[] arguments = arguments(accessor);
+
+                long callStart = System.nanoTime();
+                accessor.invoke(instance, arguments);
+                long first = System.nanoTime();
+                accessor.invoke(instance, arguments);
+                long second = System.nanoTime();
+
+                firstCalls[call++] = first - callStart;
+                secondCalls += second - first;
+            }
+        }
+        long metaspaceAfter = metaspaceUsed(pools);
+
+        long firstCallsTotal = 0;
+        for (long firstCall : firstCalls) {
+            firstCallsTotal += firstCall;
+        }
+        Arrays.sort(firstCalls);
+
+        int[] classFiles = new int[2];
+        classFiles(type, classFiles);
+
+        System.out.println("warmUp=" + warmUp.length());
+        System.out.println("accessors=" + accessors.size());
+        System.out.println("locales=" + localeTags.length);
+        System.out.println("load=" + (loaded - start));
+        System.out.println("init=" + (initialized - loaded));
+        System.out.println("instances=" + (instancesEnd - instancesStart));
+        System.out.println("firstCalls=" + firstCallsTotal);
+        System.out.println("firstCallMedian=" + (firstCalls.length == 0 ? 0 : firstCalls[firstCalls.length / 2]));
+        System.out.println("firstCallMax=" + (firstCalls.length == 0 ? 0 : firstCalls[firstCalls.length - 1]));
+        System.out.println("secondCalls=" + secondCalls);
+        System.out.println("metaspace=" + (metaspaceAfter - metaspaceBefore));
+        System.out.println("constantPool=" + classFiles[0]);
+        System.out.println("classBytes=" + classFiles[1]);
+    }
+
+    static void noop() {
+    }
+
+    static List<MemoryPoolMXBean> metaspacePools() {
+        var pools = new ArrayList<MemoryPoolMXBean>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // 'Metaspace' and 'Compressed Class Space'
+            if (pool.getType() == MemoryType.NON_HEAP && !pool.getName().startsWith("CodeHeap")) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    static long metaspaceUsed(List<MemoryPoolMXBean> pools) {
+        long used = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    // Public instance methods, which return messages
+    static List<Method> accessors(Class<?> type) {
+        var accessors = new ArrayList<Method>();
+        for (Method method : type.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) &&
+                    !method.isSynthetic() && method.getReturnType() == String.class) {
+                accessors.add(method);
+            }
+        }
+        accessors.sort(Comparator.comparing(Method::getName));
+        return accessors;
+    }
+
+    static Object[] arguments(Method accessor) {
+        Class<?>[] types = accessor.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == long.class) {
+                arguments[i] = 2L;
+            } else if (type == int.class) {
+                arguments[i] = 2;
+            } else if (type == double.class) {
+                arguments[i] = 2.0;
+            } else if (type == BigDecimal.class) {
+                arguments[i] = BigDecimal.valueOf(2);
+            } else if (type.isInstance("arg")) {
+                arguments[i] = "arg" + i;
+            }
+        }
+        return arguments;
+    }
+
+    // Sums constant pool entries and sizes of the class and all its nested classes
+    static void classFiles(Class<?> type, int[] result) throws IOException {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = Objects.requireNonNull(type.getClassLoader().getResourceAsStream(resource))) {
+            byte[] bytes = in.readAllBytes();
+            // constant_pool_count follows magic, minor and major version
+            result[0] += ((bytes[8] & 0xff) << 8 | bytes[9] & 0xff) - 1;
+            result[1] += bytes.length;
+        }
+
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            classFiles(nested, result);
+        }
+    }
+}
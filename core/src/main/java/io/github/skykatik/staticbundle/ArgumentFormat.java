@@ -0,0 +1,268 @@
+package io.github.skykatik.staticbundle;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
+/**
+ * Support for arguments with format specifier, e.g. {@code {0:amount:long:number}} or
+ * {@code {1:at:Instant:time-short}}. Generated message sources create one instance per
+ * locale and format, which is shared by all threads.
+ *
+ * <p>Integral values of {@code number} and {@code integer} formats are written digit by digit
+ * straight into the {@link StringBuilder}, other numbers are formatted by a per-thread copy
+ * of {@link NumberFormat}, as it is not thread-safe. Temporal values are formatted by
+ * the immutable {@link DateTimeFormatter}, {@link Instant} in the default time zone.
+ */
+public final class ArgumentFormat {
+
+    // Values, which are formatted by both paths to check that the fast one is correct for the locale
+    private static final long[] SAMPLES = {0, 7, -7, 1234, -1234, 1234567890, -1234567890, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    private final String format;
+    private final ThreadLocal<NumberFormat> numberFormats;
+    private final DateTimeFormatter dateTimeFormatter;
+    private final DateTimeFormatter instantFormatter;
+
+    // Fast path of integral values, only used when digits is true
+    private final boolean digits;
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+
+    private ArgumentFormat(String format, NumberFormat numberFormat) {
+        this.format = format;
+        this.numberFormats = ThreadLocal.withInitial(() -> (NumberFormat) numberFormat.clone());
+        this.dateTimeFormatter = null;
+        this.instantFormatter = null;
+
+        boolean fast = (format.equals("number") || format.equals("integer")) && numberFormat instanceof DecimalFormat;
+        DecimalFormat df = fast ? (DecimalFormat) numberFormat : new DecimalFormat("0");
+        DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+        zeroDigit = symbols.getZeroDigit();
+        groupingSeparator = symbols.getGroupingSeparator();
+        groupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+        positivePrefix = df.getPositivePrefix();
+        positiveSuffix = df.getPositiveSuffix();
+        negativePrefix = df.getNegativePrefix();
+        negativeSuffix = df.getNegativeSuffix();
+
+        for (long sample : SAMPLES) {
+            fast &= appendDigits(new StringBuilder(), sample).toString().equals(numberFormat.format(sample));
+        }
+        digits = fast;
+    }
+
+    private ArgumentFormat(String format, DateTimeFormatter dateTimeFormatter) {
+        this.format = format;
+        this.numberFormats = null;
+        this.dateTimeFormatter = dateTimeFormatter;
+        // Instants have no fields of date and time without a zone
+        this.instantFormatter = dateTimeFormatter.withZone(ZoneId.systemDefault());
+
+        digits = false;
+        zeroDigit = '0';
+        groupingSeparator = ',';
+        groupingSize = 0;
+        positivePrefix = "";
+        positiveSuffix = "";
+        negativePrefix = "-";
+        negativeSuffix = "";
+    }
+
+    /**
+     * Creates format of the {@code locale}, where {@code format} is one of {@code number},
+     * {@code integer}, {@code percent}, {@code currency} or {@code date}, {@code time} and
+     * {@code datetime} with a style suffix: {@code -short}, {@code -medium}, {@code -long} or {@code -full}.
+     */
+    public static ArgumentFormat of(Locale locale, String format) {
+        return switch (format) {
+            case "number" -> new ArgumentFormat(format, NumberFormat.getNumberInstance(locale));
+            case "integer" -> new ArgumentFormat(format, NumberFormat.getIntegerInstance(locale));
+            case "percent" -> new ArgumentFormat(format, NumberFormat.getPercentInstance(locale));
+            case "currency" -> new ArgumentFormat(format, NumberFormat.getCurrencyInstance(locale));
+            default -> {
+                int dash = format.indexOf('-');
+                if (dash == -1) {
+                    throw new IllegalArgumentException("Unknown format: '" + format + "'");
+                }
+
+                FormatStyle style = switch (format.substring(dash + 1)) {
+                    case "short" -> FormatStyle.SHORT;
+                    case "medium" -> FormatStyle.MEDIUM;
+                    case "long" -> FormatStyle.LONG;
+                    case "full" -> FormatStyle.FULL;
+                    default -> throw new IllegalArgumentException("Unknown style of format: '" + format + "'");
+                };
+                DateTimeFormatter formatter = switch (format.substring(0, dash)) {
+                    case "date" -> DateTimeFormatter.ofLocalizedDate(style);
+                    case "time" -> DateTimeFormatter.ofLocalizedTime(style);
+                    case "datetime" -> DateTimeFormatter.ofLocalizedDateTime(style);
+                    default -> throw new IllegalArgumentException("Unknown format: '" + format + "'");
+                };
+                yield new ArgumentFormat(format, formatter.withLocale(locale));
+            }
+        };
+    }
+
+    public String format(long value) {
+        if (digits) {
+            return appendDigits(new StringBuilder(24), value).toString();
+        }
+        return numberFormat().format(value);
+    }
+
+    public StringBuilder formatTo(StringBuilder out, long value) {
+        if (digits) {
+            return appendDigits(out, value);
+        }
+        return out.append(numberFormat().format(value));
+    }
+
+    public Appendable formatTo(Appendable out, long value) throws IOException {
+        if (digits) {
+            return appendDigits(out, value);
+        }
+        return out.append(numberFormat().format(value));
+    }
+
+    public String format(double value) {
+        return numberFormat().format(value);
+    }
+
+    public StringBuilder formatTo(StringBuilder out, double value) {
+        return out.append(format(value));
+    }
+
+    public Appendable formatTo(Appendable out, double value) throws IOException {
+        return out.append(format(value));
+    }
+
+    public String format(Number value) {
+        if (isIntegral(value)) {
+            return format(value.longValue());
+        }
+        return numberFormat().format(value);
+    }
+
+    public StringBuilder formatTo(StringBuilder out, Number value) {
+        if (isIntegral(value)) {
+            return formatTo(out, value.longValue());
+        }
+        return out.append(numberFormat().format(value));
+    }
+
+    public Appendable formatTo(Appendable out, Number value) throws IOException {
+        return out.append(format(value));
+    }
+
+    public String format(TemporalAccessor value) {
+        return dateTimeFormatter(value).format(value);
+    }
+
+    public StringBuilder formatTo(StringBuilder out, TemporalAccessor value) {
+        dateTimeFormatter(value).formatTo(value, out);
+        return out;
+    }
+
+    public Appendable formatTo(Appendable out, TemporalAccessor value) throws IOException {
+        try {
+            dateTimeFormatter(value).formatTo(value, out);
+        } catch (DateTimeException e) {
+            // DateTimeFormatter wraps errors of the Appendable
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+        return out;
+    }
+
+    static boolean isIntegral(Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    NumberFormat numberFormat() {
+        if (numberFormats == null) {
+            throw new IllegalStateException("Format '" + format + "' doesn't accept numbers");
+        }
+        return numberFormats.get();
+    }
+
+    DateTimeFormatter dateTimeFormatter(TemporalAccessor value) {
+        if (dateTimeFormatter == null) {
+            throw new IllegalStateException("Format '" + format + "' doesn't accept dates and times");
+        }
+        return value instanceof Instant ? instantFormatter : dateTimeFormatter;
+    }
+
+    StringBuilder appendDigits(StringBuilder out, long value) {
+        out.append(value < 0 ? negativePrefix : positivePrefix);
+
+        // Digits are taken from the negative magnitude, which also holds Long.MIN_VALUE
+        long magnitude = value < 0 ? value : -value;
+        int digitCount = digitCount(magnitude);
+        int length = digitCount + (groupingSize > 0 ? (digitCount - 1) / groupingSize : 0);
+        int pos = out.length() + length;
+        out.setLength(pos);
+
+        for (int i = 0; i < digitCount; i++) {
+            if (i != 0 && groupingSize > 0 && i % groupingSize == 0) {
+                out.setCharAt(--pos, groupingSeparator);
+            }
+            out.setCharAt(--pos, (char) (zeroDigit - magnitude % 10));
+            magnitude /= 10;
+        }
+
+        return out.append(value < 0 ? negativeSuffix : positiveSuffix);
+    }
+
+    // Same digits as above, but an Appendable can't be written backwards, so they are
+    // appended from the leading one, which is selected by the power of ten of its position
+    Appendable appendDigits(Appendable out, long value) throws IOException {
+        out.append(value < 0 ? negativePrefix : positivePrefix);
+
+        long magnitude = value < 0 ? value : -value;
+        int digitCount = digitCount(magnitude);
+        long power = -1;
+        for (int i = 1; i < digitCount; i++) {
+            power *= 10;
+        }
+
+        for (int i = digitCount - 1; i >= 0; i--) {
+            out.append((char) (zeroDigit + magnitude / power));
+            magnitude %= power;
+            power /= 10;
+            if (i != 0 && groupingSize > 0 && i % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+
+        return out.append(value < 0 ? negativeSuffix : positiveSuffix);
+    }
+
+    static int digitCount(long negativeMagnitude) {
+        int count = 1;
+        for (long power = -10; count < 19 && negativeMagnitude <= power; power *= 10) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ArgumentFormat{" + format + '}';
+    }
+}
@@ -0,0 +1,395 @@
+package io.github.skykatik.staticbundle;
+
+import java.util.Locale;
+
+/**
+ * Support for {@code LocaleTag.resolve} methods of generated message sources. Matches
+ * requested locales against a table of lowercase tags like {@code en-gb}, which is computed
+ * by the processor and also maps truncated tags of declared locales, e.g. {@code en},
+ * to the first declared locale with this prefix. So a lookup only needs to truncate
+ * the requested tag, as in the lookup scheme of RFC 4647. Declared locales rarely have
+ * a script, so tags with one are also truncated without it, in the order of candidate
+ * locales of {@link java.util.ResourceBundle.Control}: {@code zh-Hant-TW}, {@code zh-Hant},
+ * {@code zh-TW}, {@code zh}.
+ *
+ * <p>Neither matching of {@link Locale} nor parsing of {@code Accept-Language} header
+ * allocates. Results for header strings are kept in a small direct-mapped cache,
+ * so only a miss allocates its entry.
+ */
+public final class LocaleMatcher<T extends LocaleTag> {
+
+    private static final int MAX_QUALITY = 1000;
+    private static final int CACHE_SIZE = 64;
+
+    private final T fallback;
+    private final String[] keys;
+    private final int[] hashes;
+    private final LocaleTag[] values;
+    private final int mask;
+    private final CacheEntry[] cache = new CacheEntry[CACHE_SIZE];
+
+    /**
+     * Creates matcher of lowercase {@code tags} with subtags separated by {@code '-'}
+     * to locales of the same index. The {@code fallback} is returned, when nothing matches.
+     */
+    public LocaleMatcher(T fallback, String[] tags, T[] locales) {
+        if (tags.length != locales.length) {
+            throw new IllegalArgumentException("Table has " + tags.length + " tags, but " + locales.length + " locales");
+        }
+
+        this.fallback = fallback;
+
+        int capacity = Integer.highestOneBit(Math.max(tags.length, 1) * 2 - 1) << 1;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new LocaleTag[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < tags.length; i++) {
+            String tag = tags[i];
+            int hash = hash(tag, 0, tag.length(), 0);
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(tag)) {
+                    throw new IllegalArgumentException("Duplicate tag: " + tag);
+                }
+                slot = slot + 1 & mask;
+            }
+            keys[slot] = tag;
+            hashes[slot] = hash;
+            values[slot] = locales[i];
+        }
+    }
+
+    /**
+     * Returns the declared locale with the longest matching prefix of language,
+     * script, country and variant of the {@code locale}, or the one without script,
+     * or fallback.
+     */
+    public T match(Locale locale) {
+        String language = locale.getLanguage();
+        String script = locale.getScript();
+        String country = locale.getCountry();
+        String variant = locale.getVariant();
+
+        T result = !script.isEmpty() ? truncate(language, script, country, variant, 2) : null;
+        if (result == null) {
+            result = truncate(language, "", country, variant, 1);
+        }
+        return result != null ? result : fallback;
+    }
+
+    // Drops the last non-empty subtag until something matches, keeping at least minCount of them
+    T truncate(String language, String script, String country, String variant, int minCount) {
+        for (int count = 4; count >= minCount; count--) {
+            if (count == 4 && variant.isEmpty() || count == 3 && country.isEmpty() ||
+                    count == 2 && script.isEmpty() || count == 1 && language.isEmpty()) {
+                continue;
+            }
+
+            T result = find(language, count > 1 ? script : "",
+                    count > 2 ? country : "", count > 3 ? variant : "");
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the declared locale, which best matches the language ranges of
+     * {@code Accept-Language} header. Ranges are ordered by quality weight and then by position,
+     * each one is truncated until it matches, {@code *} stands for fallback. Malformed ranges
+     * and ranges with zero weight are skipped. Returns fallback for {@code null} or no match.
+     */
+    public T match(CharSequence acceptLanguage) {
+        if (acceptLanguage == null) {
+            return fallback;
+        }
+
+        // Strings are immutable, so they are safe to cache
+        int slot = 0;
+        if (acceptLanguage instanceof String header) {
+            slot = spread(header.hashCode()) & CACHE_SIZE - 1;
+            CacheEntry entry = cache[slot];
+            if (entry != null && entry.header.equals(header)) {
+                @SuppressWarnings("unchecked")
+                T result = (T) entry.result;
+                return result;
+            }
+        }
+
+        T result = parse(acceptLanguage);
+        if (acceptLanguage instanceof String header) {
+            // Entry is immutable, so races only lose updates
+            cache[slot] = new CacheEntry(header, result);
+        }
+        return result;
+    }
+
+    T parse(CharSequence header) {
+        T best = fallback;
+        int bestQuality = 0;
+
+        int length = header.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = indexOf(header, ',', pos, length);
+            int params = indexOf(header, ';', pos, end);
+
+            int tagStart = skipWhitespace(header, pos, params);
+            int tagEnd = trimWhitespace(header, tagStart, params);
+            int quality = quality(header, params, end);
+            pos = end + 1;
+
+            if (tagStart == tagEnd || quality <= bestQuality) {
+                continue;
+            }
+
+            T match = tagEnd - tagStart == 1 && header.charAt(tagStart) == '*'
+                    ? fallback
+                    : lookup(header, tagStart, tagEnd);
+            if (match != null) {
+                best = match;
+                bestQuality = quality;
+                if (quality == MAX_QUALITY) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Tag with truncation: 'zh-Hant-CN-x-private' -> 'zh-Hant-CN' -> 'zh-Hant',
+    // then without the script: 'zh-CN-x-private' -> 'zh-CN' -> 'zh'
+    T lookup(CharSequence header, int start, int end) {
+        int languageEnd = indexOfSeparator(header, start, end);
+        int scriptEnd = languageEnd + 5;
+        if (!isScript(header, languageEnd, scriptEnd, end)) {
+            return truncate(header, start, end, start, start, start);
+        }
+
+        T result = truncate(header, start, end, languageEnd, languageEnd, languageEnd);
+        return result != null ? result : truncate(header, start, end, languageEnd, scriptEnd, languageEnd);
+    }
+
+    // Drops the last subtag until something matches or the end reaches the limit,
+    // characters in [gapStart, gapEnd) are skipped
+    T truncate(CharSequence header, int start, int end, int gapStart, int gapEnd, int limit) {
+        while (end > limit) {
+            T result = find(header, start, end, gapStart, gapEnd);
+            if (result != null) {
+                return result;
+            }
+
+            int dash = end - 1;
+            while (dash > start && !isSeparator(header.charAt(dash))) {
+                dash--;
+            }
+            // Single character subtag can't end the range
+            if (dash - 2 >= start && isSeparator(header.charAt(dash - 2))) {
+                dash -= 2;
+            }
+            end = dash;
+        }
+        return null;
+    }
+
+    // Script subtag is the second one of four letters
+    static boolean isScript(CharSequence header, int languageEnd, int scriptEnd, int end) {
+        if (scriptEnd > end || scriptEnd != end && !isSeparator(header.charAt(scriptEnd))) {
+            return false;
+        }
+        for (int i = languageEnd + 1; i < scriptEnd; i++) {
+            char c = lower(header.charAt(i));
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Quality weight in thousandths, 1000 without 'q' parameter and -1 when it is malformed
+    static int quality(CharSequence header, int params, int end) {
+        int pos = params;
+        while (pos < end) {
+            int next = indexOf(header, ';', pos + 1, end);
+            int start = skipWhitespace(header, pos + 1, next);
+            int valueEnd = trimWhitespace(header, start, next);
+            if (start != valueEnd && lower(header.charAt(start)) == 'q') {
+                int value = skipWhitespace(header, start + 1, valueEnd);
+                if (value != valueEnd && header.charAt(value) == '=') {
+                    return parseQuality(header, skipWhitespace(header, value + 1, valueEnd), valueEnd);
+                }
+            }
+            pos = next;
+        }
+        return MAX_QUALITY;
+    }
+
+    // qvalue = ( "0" [ "." 0*3DIGIT ] ) / ( "1" [ "." 0*3("0") ] )
+    static int parseQuality(CharSequence header, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+
+        char integer = header.charAt(start);
+        if (integer != '0' && integer != '1') {
+            return -1;
+        }
+
+        int result = (integer - '0') * MAX_QUALITY;
+        if (start + 1 == end) {
+            return result;
+        }
+        if (header.charAt(start + 1) != '.' || end - start - 2 > 3) {
+            return -1;
+        }
+
+        int scale = 100;
+        for (int i = start + 2; i < end; i++, scale /= 10) {
+            char c = header.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result += (c - '0') * scale;
+        }
+        return result > MAX_QUALITY ? -1 : result;
+    }
+
+    @SuppressWarnings("unchecked")
+    T find(CharSequence header, int start, int end, int gapStart, int gapEnd) {
+        int hash = hash(header, gapEnd, end, hash(header, start, gapStart, 0));
+        for (int slot = hash & mask; keys[slot] != null; slot = slot + 1 & mask) {
+            if (hashes[slot] == hash && equals(keys[slot], header, start, end, gapStart, gapEnd)) {
+                return (T) values[slot];
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    T find(String language, String script, String country, String variant) {
+        int hash = hash(language, 0, language.length(), 0);
+        hash = appendHash(script, hash);
+        hash = appendHash(country, hash);
+        hash = appendHash(variant, hash);
+
+        for (int slot = hash & mask; keys[slot] != null; slot = slot + 1 & mask) {
+            if (hashes[slot] != hash) {
+                continue;
+            }
+
+            String key = keys[slot];
+            int pos = language.length();
+            if (!equals(key, 0, language) || (pos = matchSubtag(key, pos, script)) == -1 ||
+                    (pos = matchSubtag(key, pos, country)) == -1 || (pos = matchSubtag(key, pos, variant)) == -1) {
+                continue;
+            }
+            if (pos == key.length()) {
+                return (T) values[slot];
+            }
+        }
+        return null;
+    }
+
+    // Position after '-' and the subtag in the key, or -1 if it doesn't match
+    static int matchSubtag(String key, int pos, String subtag) {
+        if (subtag.isEmpty()) {
+            return pos;
+        }
+        if (pos >= key.length() || key.charAt(pos) != '-' || !equals(key, pos + 1, subtag)) {
+            return -1;
+        }
+        return pos + 1 + subtag.length();
+    }
+
+    static boolean equals(String key, int offset, String subtag) {
+        if (key.length() - offset < subtag.length()) {
+            return false;
+        }
+        for (int i = 0; i < subtag.length(); i++) {
+            if (key.charAt(offset + i) != normalize(subtag.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean equals(String key, CharSequence header, int start, int end, int gapStart, int gapEnd) {
+        if (key.length() != end - start - (gapEnd - gapStart)) {
+            return false;
+        }
+        int k = 0;
+        for (int i = start; i < end; i = i + 1 == gapStart ? gapEnd : i + 1) {
+            if (key.charAt(k++) != normalize(header.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int appendHash(String subtag, int hash) {
+        if (subtag.isEmpty()) {
+            return hash;
+        }
+        return hash(subtag, 0, subtag.length(), 31 * hash + '-');
+    }
+
+    static int hash(CharSequence s, int start, int end, int hash) {
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + normalize(s.charAt(i));
+        }
+        return hash;
+    }
+
+    static int spread(int hash) {
+        return hash ^ hash >>> 16;
+    }
+
+    // Tags are case-insensitive and Locale.toString() separates subtags with '_'
+    static char normalize(char c) {
+        return c == '_' ? '-' : lower(c);
+    }
+
+    static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    static boolean isSeparator(char c) {
+        return c == '-' || c == '_';
+    }
+
+    static int indexOfSeparator(CharSequence s, int start, int end) {
+        while (start < end && !isSeparator(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    static int skipWhitespace(CharSequence s, int start, int end) {
+        while (start < end && (s.charAt(start) == ' ' || s.charAt(start) == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    static int trimWhitespace(CharSequence s, int start, int end) {
+        while (end > start && (s.charAt(end - 1) == ' ' || s.charAt(end - 1) == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private record CacheEntry(String header, LocaleTag result) {
+    }
+}
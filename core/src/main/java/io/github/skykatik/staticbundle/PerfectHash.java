@@ -0,0 +1,88 @@
+package io.github.skykatik.staticbundle;
+
+/**
+ * Support for {@code lookupId} methods of generated message sources. Minimal perfect
+ * hash of keys, which is computed by the processor: cached {@link String#hashCode()}
+ * selects a bucket and the displacement seed of the bucket selects the slot of the key,
+ * so every key has its own slot in {@code [0, size)} and a lookup only hashes the key
+ * once and compares it with a single candidate.
+ *
+ * <p>Lookups neither allocate nor depend on the order of insertion.
+ */
+public final class PerfectHash {
+
+    private static final int SEED_STEP = 0x9E3779B9;
+
+    private final int salt;
+    private final String[] keys;
+    private final char[] seeds;
+
+    /**
+     * Creates perfect hash of {@code keys} in slot order with the bucket
+     * {@code seeds} split into string {@code chunks}, as computed by the processor.
+     */
+    public PerfectHash(int salt, String[] keys, String... chunks) {
+        int length = 0;
+        for (String chunk : chunks) {
+            length += chunk.length();
+        }
+
+        this.salt = salt;
+        this.keys = keys;
+        this.seeds = new char[length];
+        int pos = 0;
+        for (String chunk : chunks) {
+            chunk.getChars(0, chunk.length(), seeds, pos);
+            pos += chunk.length();
+        }
+
+        if (keys.length != 0 && seeds.length == 0) {
+            throw new IllegalArgumentException("Hash of " + keys.length + " keys has no buckets");
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns slot of the {@code key} or -1, when it isn't one of the keys.
+     */
+    public int indexOf(String key) {
+        if (keys.length == 0) {
+            return -1;
+        }
+
+        char seed = seeds[bucket(key, salt, seeds.length)];
+        int slot = slot(key, salt, seed, keys.length);
+        return keys[slot].equals(key) ? slot : -1;
+    }
+
+    // The processor computes seeds with a copy of these functions, so both must be changed together
+
+    static int bucket(String key, int salt, int bucketCount) {
+        return reduce(mix(key.hashCode() ^ salt), bucketCount);
+    }
+
+    static int slot(String key, int salt, char seed, int size) {
+        int hash = salt ^ (seed + 1) * SEED_STEP;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x01000193;
+        }
+        return reduce(mix(hash), size);
+    }
+
+    static int mix(int hash) {
+        hash = (hash ^ hash >>> 16) * 0x85EBCA6B;
+        return hash ^ hash >>> 13;
+    }
+
+    // Maps hash to [0, n) with multiplication instead of division
+    static int reduce(int hash, int n) {
+        return (int) ((hash & 0xFFFFFFFFL) * n >>> 32);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.skykatik.staticbundle;
+
+import java.math.BigDecimal;
+
+/**
+ * Operands of CLDR plural rules, used by generated {@code pluralForm} methods
+ * for fractional amounts. Every operand is computed separately, so callers
+ * don't need an intermediate object or string representation of the number.
+ */
+public final class PluralOperands {
+
+    private static final int MAX_FRACTION_DIGITS = 17;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        double power = 1;
+        for (int i = 0; i <= MAX_FRACTION_DIGITS; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private PluralOperands() {
+    }
+
+    /**
+     * Returns the number of visible fraction digits (operand {@code v}) of the shortest
+     * decimal, which is equal to the {@code value}. E.g. {@code 1.5} has 1 digit,
+     * {@code 1.0} has none.
+     */
+    public static int visibleFractionDigits(double value) {
+        double abs = Math.abs(value);
+        if (abs == Math.rint(abs) || !Double.isFinite(abs)) {
+            return 0;
+        }
+
+        for (int v = 1; v <= MAX_FRACTION_DIGITS; v++) {
+            double scaled = abs * POWERS_OF_TEN[v];
+            if (Math.rint(scaled) / POWERS_OF_TEN[v] == abs || scaled >= 0x1p53) {
+                return v;
+            }
+        }
+        return MAX_FRACTION_DIGITS;
+    }
+
+    /** Returns the integer digits (operand {@code i}) of the {@code value}. */
+    public static long integerDigits(double value) {
+        return (long) Math.abs(value);
+    }
+
+    /** Returns the {@code v} visible fraction digits (operand {@code f}) of the {@code value}. */
+    public static long fractionDigits(double value, int v) {
+        if (v == 0) {
+            return 0;
+        }
+
+        double abs = Math.abs(value);
+        double power = POWERS_OF_TEN[v];
+        return Math.round(abs * power) - (long) Math.floor(abs) * (long) power;
+    }
+
+    /** Returns the number of visible fraction digits (operand {@code v}) of the {@code value}. */
+    public static int visibleFractionDigits(BigDecimal value) {
+        return Math.max(value.scale(), 0);
+    }
+
+    /** Returns the integer digits (operand {@code i}) of the {@code value}. */
+    public static long integerDigits(BigDecimal value) {
+        return value.abs().longValue();
+    }
+
+    /** Returns the {@code v} visible fraction digits (operand {@code f}) of the {@code value}. */
+    public static long fractionDigits(BigDecimal value, int v) {
+        if (v == 0) {
+            return 0;
+        }
+        return value.abs().remainder(BigDecimal.ONE).movePointRight(v).longValue();
+    }
+
+    /** Returns the visible fraction digits without trailing zeros (operand {@code t}). */
+    public static long trimTrailingZeros(long f) {
+        while (f != 0 && f % 10 == 0) {
+            f /= 10;
+        }
+        return f;
+    }
+
+    /** Returns the number of visible fraction digits without trailing zeros (operand {@code w}). */
+    public static int trimmedFractionDigits(long f, int v) {
+        if (f == 0) {
+            return 0;
+        }
+
+        while (f % 10 == 0) {
+            f /= 10;
+            v--;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.skykatik.staticbundle;
+
+/**
+ * Support for message sources generated with table strategy. Texts of locale
+ * are stored as few large string constants with NUL-terminated entries, instead
+ * of constant per text, and are unpacked into the array once per locale.
+ */
+public final class StringTable {
+
+    private static final char SEPARATOR = '\0';
+
+    private StringTable() {
+    }
+
+    public static String[] unpack(int size, String... chunks) {
+        String[] result = new String[size];
+        int n = 0;
+        for (String chunk : chunks) {
+            int prev = 0;
+            for (int i = chunk.indexOf(SEPARATOR); i != -1; i = chunk.indexOf(SEPARATOR, prev)) {
+                if (n == size) {
+                    throw new IllegalArgumentException("Table has more than " + size + " entries");
+                }
+                result[n++] = i == prev ? "" : chunk.substring(prev, i);
+                prev = i + 1;
+            }
+        }
+
+        if (n != size) {
+            throw new IllegalArgumentException("Table has " + n + " entries, but expected " + size);
+        }
+        return result;
+    }
+}
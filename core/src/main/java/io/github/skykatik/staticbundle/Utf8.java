@@ -0,0 +1,222 @@
+package io.github.skykatik.staticbundle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoders used by generated {@code writeUtf8} methods for the dynamic parts of messages.
+ * Overloads follow the rules of string conversion, so {@code write(out, x)} produces the
+ * same bytes as {@code String.valueOf(x).getBytes(StandardCharsets.UTF_8)}, but without
+ * intermediate strings and byte arrays.
+ */
+public final class Utf8 {
+
+    private static final int SCRATCH_SIZE = 256;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+
+    private Utf8() {
+    }
+
+    public static void write(ByteBuffer out, CharSequence value) {
+        if (value == null) {
+            value = "null";
+        }
+
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int cp = codePoint(value, c, i);
+                if (cp == -1) {
+                    out.put((byte) '?');
+                } else {
+                    i++;
+                    out.put((byte) (0xF0 | cp >> 18));
+                    out.put((byte) (0x80 | cp >> 12 & 0x3F));
+                    out.put((byte) (0x80 | cp >> 6 & 0x3F));
+                    out.put((byte) (0x80 | cp & 0x3F));
+                }
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    public static void write(ByteBuffer out, char value) {
+        if (value < 0x80) {
+            out.put((byte) value);
+        } else if (value < 0x800) {
+            out.put((byte) (0xC0 | value >> 6));
+            out.put((byte) (0x80 | value & 0x3F));
+        } else if (Character.isSurrogate(value)) {
+            out.put((byte) '?');
+        } else {
+            out.put((byte) (0xE0 | value >> 12));
+            out.put((byte) (0x80 | value >> 6 & 0x3F));
+            out.put((byte) (0x80 | value & 0x3F));
+        }
+    }
+
+    public static void write(ByteBuffer out, long value) {
+        int size = stringSize(value);
+        int position = out.position();
+        if (out.remaining() < size) {
+            // Same behaviour as relative put
+            throw new BufferOverflowException();
+        }
+
+        putDigits(out, position + size, value);
+        out.position(position + size);
+    }
+
+    public static void write(ByteBuffer out, Object value) {
+        write(out, String.valueOf(value));
+    }
+
+    public static void write(OutputStream out, CharSequence value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+
+        byte[] scratch = SCRATCH.get();
+        int pos = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            // Longest sequence is 4 bytes
+            if (pos > SCRATCH_SIZE - 4) {
+                out.write(scratch, 0, pos);
+                pos = 0;
+            }
+
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                scratch[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[pos++] = (byte) (0xC0 | c >> 6);
+                scratch[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                int cp = codePoint(value, c, i);
+                if (cp == -1) {
+                    scratch[pos++] = (byte) '?';
+                } else {
+                    i++;
+                    scratch[pos++] = (byte) (0xF0 | cp >> 18);
+                    scratch[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    scratch[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    scratch[pos++] = (byte) (0x80 | cp & 0x3F);
+                }
+            } else {
+                scratch[pos++] = (byte) (0xE0 | c >> 12);
+                scratch[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                scratch[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+
+        if (pos != 0) {
+            out.write(scratch, 0, pos);
+        }
+    }
+
+    public static void write(OutputStream out, char value) throws IOException {
+        if (value < 0x80) {
+            out.write(value);
+        } else {
+            byte[] scratch = SCRATCH.get();
+            int pos = 0;
+            if (value < 0x800) {
+                scratch[pos++] = (byte) (0xC0 | value >> 6);
+                scratch[pos++] = (byte) (0x80 | value & 0x3F);
+            } else if (Character.isSurrogate(value)) {
+                scratch[pos++] = (byte) '?';
+            } else {
+                scratch[pos++] = (byte) (0xE0 | value >> 12);
+                scratch[pos++] = (byte) (0x80 | value >> 6 & 0x3F);
+                scratch[pos++] = (byte) (0x80 | value & 0x3F);
+            }
+            out.write(scratch, 0, pos);
+        }
+    }
+
+    public static void write(OutputStream out, long value) throws IOException {
+        byte[] scratch = SCRATCH.get();
+        int size = stringSize(value);
+        putDigits(scratch, size, value);
+        out.write(scratch, 0, size);
+    }
+
+    public static void write(OutputStream out, Object value) throws IOException {
+        write(out, String.valueOf(value));
+    }
+
+    static int codePoint(CharSequence value, char high, int index) {
+        if (Character.isHighSurrogate(high) && index + 1 < value.length()) {
+            char low = value.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+        return -1;
+    }
+
+    static int stringSize(long value) {
+        int sign = 0;
+        if (value >= 0) {
+            value = -value;
+        } else {
+            sign = 1;
+        }
+
+        long p = -10;
+        for (int i = 1; i < 19; i++) {
+            if (value > p) {
+                return i + sign;
+            }
+            p = 10 * p;
+        }
+        return 19 + sign;
+    }
+
+    // Digits are produced from the negated value, so Long.MIN_VALUE needs no special case
+    static void putDigits(ByteBuffer out, int end, long value) {
+        boolean negative = value < 0;
+        if (!negative) {
+            value = -value;
+        }
+
+        int pos = end;
+        do {
+            out.put(--pos, (byte) ('0' - value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        if (negative) {
+            out.put(--pos, (byte) '-');
+        }
+    }
+
+    static void putDigits(byte[] out, int end, long value) {
+        boolean negative = value < 0;
+        if (!negative) {
+            value = -value;
+        }
+
+        int pos = end;
+        do {
+            out[--pos] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        if (negative) {
+            out[--pos] = (byte) '-';
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.skykatik.staticbundle;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArgumentFormatTest {
+
+    static final Locale[] LOCALES = {
+            Locale.ROOT, Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.forLanguageTag("ru-RU"),
+            Locale.forLanguageTag("de-CH"), Locale.forLanguageTag("hi-IN"), Locale.forLanguageTag("ar-EG"),
+            Locale.forLanguageTag("th-TH-u-nu-thai")
+    };
+
+    static final long[] VALUES = {
+            0, 1, -1, 9, 10, 99, 100, 999, 1000, -1000, 12345, 999999, 1000000, -1234567,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, 999999999999999999L, Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    @Test
+    void formatsIntegralValuesLikeNumberFormat() throws IOException {
+        for (Locale locale : LOCALES) {
+            for (String format : new String[]{"number", "integer"}) {
+                var argumentFormat = ArgumentFormat.of(locale, format);
+                var numberFormat = format.equals("number")
+                        ? NumberFormat.getNumberInstance(locale)
+                        : NumberFormat.getIntegerInstance(locale);
+
+                for (long value : VALUES) {
+                    String expected = numberFormat.format(value);
+                    String message = locale + " " + format + " " + value;
+                    assertEquals(expected, argumentFormat.format(value), message);
+                    assertEquals("<" + expected, argumentFormat.formatTo(new StringBuilder("<"), value).toString(), message);
+                    assertEquals(expected, argumentFormat.formatTo((Appendable) new StringWriter(), value).toString(), message);
+                    assertEquals(expected, argumentFormat.format(Long.valueOf(value)), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void appendsDigitsWithGrouping() throws IOException {
+        for (Locale locale : new Locale[]{Locale.US, Locale.GERMANY, Locale.FRANCE}) {
+            var argumentFormat = ArgumentFormat.of(locale, "number");
+            var numberFormat = NumberFormat.getNumberInstance(locale);
+            for (long value : VALUES) {
+                String expected = numberFormat.format(value);
+                assertEquals(expected, argumentFormat.appendDigits(new StringBuilder(), value).toString());
+                assertEquals(expected, argumentFormat.appendDigits((Appendable) new StringWriter(), value).toString());
+            }
+        }
+    }
+
+    @Test
+    void formatsOtherNumbers() throws IOException {
+        var argumentFormat = ArgumentFormat.of(Locale.US, "number");
+        var numberFormat = NumberFormat.getNumberInstance(Locale.US);
+
+        assertEquals(numberFormat.format(1234.5678), argumentFormat.format(1234.5678));
+        assertEquals(numberFormat.format(new BigDecimal("12345.678")), argumentFormat.format(new BigDecimal("12345.678")));
+        assertEquals(numberFormat.format(-0.5), argumentFormat.formatTo((Appendable) new StringWriter(), -0.5).toString());
+        assertEquals("50%", ArgumentFormat.of(Locale.US, "percent").format(0.5));
+        assertEquals("1,234%", ArgumentFormat.of(Locale.US, "percent").format(12.34));
+    }
+
+    @Test
+    void formatsTemporalValues() throws IOException {
+        var argumentFormat = ArgumentFormat.of(Locale.US, "date-medium");
+        var date = LocalDate.of(2024, 3, 5);
+        String expected = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(Locale.US).format(date);
+
+        assertEquals(expected, argumentFormat.format(date));
+        assertEquals(expected, argumentFormat.formatTo(new StringBuilder(), date).toString());
+        assertEquals(expected, argumentFormat.formatTo((Appendable) new StringWriter(), date).toString());
+    }
+
+    @Test
+    void throwsErrorsOfAppendable() {
+        var argumentFormat = ArgumentFormat.of(Locale.US, "date-medium");
+        var error = new IOException("closed");
+        Appendable closed = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len) throws IOException {
+                throw error;
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertSame(error, assertThrows(IOException.class, () -> argumentFormat.formatTo(closed, LocalDate.of(2024, 3, 5))));
+    }
+
+    @Test
+    void countsDigits() {
+        assertEquals(1, ArgumentFormat.digitCount(0));
+        assertEquals(1, ArgumentFormat.digitCount(-9));
+        assertEquals(2, ArgumentFormat.digitCount(-10));
+        assertEquals(18, ArgumentFormat.digitCount(-999999999999999999L));
+        assertEquals(19, ArgumentFormat.digitCount(-1000000000000000000L));
+        assertEquals(19, ArgumentFormat.digitCount(Long.MIN_VALUE));
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        assertThrows(IllegalArgumentException.class, () -> ArgumentFormat.of(Locale.US, "decimal"));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentFormat.of(Locale.US, "date-tiny"));
+        assertThrows(IllegalStateException.class, () -> ArgumentFormat.of(Locale.US, "date-short").format(1));
+    }
+}
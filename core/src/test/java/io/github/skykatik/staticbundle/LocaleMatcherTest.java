@@ -0,0 +1,156 @@
+package io.github.skykatik.staticbundle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocaleMatcherTest {
+
+    enum Tag implements LocaleTag {
+        ROOT(Locale.ROOT),
+        EN(Locale.ENGLISH),
+        EN_GB(Locale.UK),
+        RU(Locale.forLanguageTag("ru")),
+        ZH_CN(Locale.SIMPLIFIED_CHINESE),
+        ZH_TW(Locale.TRADITIONAL_CHINESE);
+
+        final Locale locale;
+
+        Tag(Locale locale) {
+            this.locale = locale;
+        }
+
+        @Override
+        public Locale locale() {
+            return locale;
+        }
+    }
+
+    // Same table as the processor generates: truncated tags map to the first declared locale
+    final LocaleMatcher<Tag> matcher = new LocaleMatcher<>(Tag.ROOT,
+            new String[]{"en", "en-gb", "ru", "zh-cn", "zh-tw", "zh"},
+            new Tag[]{Tag.EN, Tag.EN_GB, Tag.RU, Tag.ZH_CN, Tag.ZH_TW, Tag.ZH_CN});
+
+    @Test
+    void matchesLocale() {
+        assertEquals(Tag.EN, matcher.match(Locale.ENGLISH));
+        assertEquals(Tag.EN_GB, matcher.match(Locale.UK));
+        assertEquals(Tag.EN, matcher.match(Locale.US));
+        assertEquals(Tag.ZH_TW, matcher.match(Locale.TAIWAN));
+        assertEquals(Tag.ROOT, matcher.match(Locale.GERMANY));
+        assertEquals(Tag.ROOT, matcher.match(Locale.ROOT));
+    }
+
+    @Test
+    void matchesLocaleWithVariant() {
+        assertEquals(Tag.EN_GB, matcher.match(new Locale("en", "GB", "oxendict")));
+        assertEquals(Tag.RU, matcher.match(new Locale("ru", "", "petr1708")));
+    }
+
+    @Test
+    void matchesLocaleWithoutScript() {
+        assertEquals(Tag.ZH_TW, matcher.match(Locale.forLanguageTag("zh-Hant-TW")));
+        assertEquals(Tag.ZH_CN, matcher.match(Locale.forLanguageTag("zh-Hans-CN")));
+        assertEquals(Tag.ZH_CN, matcher.match(Locale.forLanguageTag("zh-Hant")));
+    }
+
+    @Test
+    void matchesScriptBeforeCountry() {
+        var scripted = new LocaleMatcher<>(Tag.ROOT,
+                new String[]{"zh-tw", "zh-hant", "zh"},
+                new Tag[]{Tag.ZH_TW, Tag.ZH_CN, Tag.ZH_TW});
+
+        assertEquals(Tag.ZH_CN, scripted.match(Locale.forLanguageTag("zh-Hant-TW")));
+        assertEquals(Tag.ZH_CN, scripted.match("zh-Hant-TW"));
+    }
+
+    @Test
+    void truncatesRanges() {
+        assertEquals(Tag.EN, matcher.match("en-US"));
+        assertEquals(Tag.EN_GB, matcher.match("en-GB-oxendict"));
+        assertEquals(Tag.ZH_CN, matcher.match("zh"));
+        assertEquals(Tag.ZH_TW, matcher.match("zh-TW-x-private"));
+        assertEquals(Tag.ROOT, matcher.match("de-DE"));
+    }
+
+    @Test
+    void truncatesRangesWithoutScript() {
+        assertEquals(Tag.ZH_TW, matcher.match("zh-Hant-TW"));
+        assertEquals(Tag.ZH_CN, matcher.match("zh-Hant-CN-x-private"));
+        assertEquals(Tag.ZH_CN, matcher.match("zh-Hant"));
+        assertEquals(Tag.ZH_TW, matcher.match("zh_hant_tw"));
+    }
+
+    @Test
+    void ignoresCaseAndWhitespace() {
+        assertEquals(Tag.EN_GB, matcher.match(" EN-gb ; Q=0.7 "));
+        assertEquals(Tag.EN_GB, matcher.match("en_GB"));
+        assertEquals(Tag.RU, matcher.match("de;q=0.9,\tru ;q=0.5"));
+    }
+
+    @Test
+    void ordersRangesByQuality() {
+        assertEquals(Tag.EN_GB, matcher.match("ru;q=0.5, en-GB;q=0.8"));
+        assertEquals(Tag.RU, matcher.match("en;q=0.9, ru"));
+        assertEquals(Tag.RU, matcher.match("ru;q=0.5, en;q=0.5"));
+        assertEquals(Tag.EN, matcher.match("de, fr;q=0.9, en;q=0.1"));
+    }
+
+    @Test
+    void skipsZeroAndMalformedQuality() {
+        assertEquals(Tag.RU, matcher.match("en;q=0, ru;q=0.1"));
+        assertEquals(Tag.ROOT, matcher.match("en-US;q=1.0000"));
+        assertEquals(Tag.ROOT, matcher.match("en;q=1.001"));
+        assertEquals(Tag.ROOT, matcher.match("en;q=2"));
+        assertEquals(Tag.ROOT, matcher.match("en;q="));
+        assertEquals(Tag.RU, matcher.match("en;q=abc, ru;q=0.2"));
+    }
+
+    @Test
+    void parsesQuality() {
+        assertEquals(1000, LocaleMatcher.parseQuality("1", 0, 1));
+        assertEquals(1000, LocaleMatcher.parseQuality("1.000", 0, 5));
+        assertEquals(500, LocaleMatcher.parseQuality("0.5", 0, 3));
+        assertEquals(1, LocaleMatcher.parseQuality("0.001", 0, 5));
+        assertEquals(0, LocaleMatcher.parseQuality("0.", 0, 2));
+        assertEquals(-1, LocaleMatcher.parseQuality("0.0001", 0, 6));
+        assertEquals(-1, LocaleMatcher.parseQuality(".5", 0, 2));
+    }
+
+    @Test
+    void matchesWildcard() {
+        assertEquals(Tag.ROOT, matcher.match("*"));
+        assertEquals(Tag.ROOT, matcher.match("de, *;q=0.5, ru;q=0.4"));
+        assertEquals(Tag.RU, matcher.match("*;q=0.1, ru;q=0.4"));
+    }
+
+    @Test
+    void fallsBackWithoutRanges() {
+        assertEquals(Tag.ROOT, matcher.match((CharSequence) null));
+        assertEquals(Tag.ROOT, matcher.match(""));
+        assertEquals(Tag.ROOT, matcher.match(" , ;q=1"));
+    }
+
+    @Test
+    void matchesCharSequence() {
+        assertEquals(Tag.EN_GB, matcher.match(new StringBuilder("fr;q=0.3, en-GB")));
+    }
+
+    @Test
+    void cachesHeaders() {
+        String header = "ru;q=0.5, en-GB;q=0.8";
+        assertSame(matcher.match(header), matcher.match(new String(header)));
+    }
+
+    @Test
+    void rejectsDuplicateTags() {
+        assertThrows(IllegalArgumentException.class, () -> new LocaleMatcher<>(Tag.ROOT,
+                new String[]{"en", "en"}, new Tag[]{Tag.EN, Tag.EN_GB}));
+        assertThrows(IllegalArgumentException.class, () -> new LocaleMatcher<>(Tag.ROOT,
+                new String[]{"en"}, new Tag[0]));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.skykatik.staticbundle;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PluralOperandsTest {
+
+    @Test
+    void computesOperandsOfDouble() {
+        assertOperands(1, 0, 0, 1.0);
+        assertOperands(1, 1, 5, 1.5);
+        assertOperands(1, 1, 5, -1.5);
+        assertOperands(0, 2, 25, 0.25);
+        assertOperands(1, 2, 5, 1.05);
+        assertOperands(123, 3, 456, 123.456);
+        assertOperands(0, 1, 1, 0.1);
+        assertOperands(1000000, 0, 0, 1e6);
+    }
+
+    @Test
+    void computesOperandsOfShortestDecimal() {
+        // Shortest decimal of the sum is 0.30000000000000004
+        assertOperands(0, 17, 30000000000000004L, 0.1 + 0.2);
+        assertOperands(0, 0, 0, Double.NaN);
+        assertOperands(Long.MAX_VALUE, 0, 0, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    void computesOperandsOfBigDecimal() {
+        assertOperands(1, 0, 0, new BigDecimal("1"));
+        assertOperands(1, 1, 0, new BigDecimal("1.0"));
+        assertOperands(1, 2, 50, new BigDecimal("1.50"));
+        assertOperands(3, 2, 25, new BigDecimal("-3.25"));
+        assertOperands(100, 0, 0, new BigDecimal("1E+2"));
+        assertOperands(0, 3, 1, new BigDecimal("0.001"));
+    }
+
+    @Test
+    void trimsTrailingZeros() {
+        assertEquals(0, PluralOperands.trimTrailingZeros(0));
+        assertEquals(5, PluralOperands.trimTrailingZeros(50));
+        assertEquals(105, PluralOperands.trimTrailingZeros(10500));
+
+        assertEquals(0, PluralOperands.trimmedFractionDigits(0, 2));
+        assertEquals(1, PluralOperands.trimmedFractionDigits(50, 2));
+        assertEquals(3, PluralOperands.trimmedFractionDigits(105, 3));
+    }
+
+    static void assertOperands(long i, int v, long f, double value) {
+        int actualV = PluralOperands.visibleFractionDigits(value);
+        assertEquals(v, actualV, "v of " + value);
+        assertEquals(i, PluralOperands.integerDigits(value), "i of " + value);
+        assertEquals(f, PluralOperands.fractionDigits(value, actualV), "f of " + value);
+    }
+
+    static void assertOperands(long i, int v, long f, BigDecimal value) {
+        int actualV = PluralOperands.visibleFractionDigits(value);
+        assertEquals(v, actualV, "v of " + value);
+        assertEquals(i, PluralOperands.integerDigits(value), "i of " + value);
+        assertEquals(f, PluralOperands.fractionDigits(value, actualV), "f of " + value);
+    }
+}
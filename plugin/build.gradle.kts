@@ -31,6 +31,23 @@ repositories {
 
 dependencies {
     implementation("org.jetbrains.kotlin:kotlin-gradle-plugin:1.8.22")
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// Tests compile generated message sources against the runtime classes of core.
+// They are built from its sources for tests only, as the plugin doesn't depend on core
+sourceSets.test {
+    java.srcDir("../core/src/main/java")
+    java.exclude("module-info.java")
+}
+
+tasks.test {
+    useJUnitPlatform()
+    // ProjectBuilder defines classes of managed types, such as settings of locales
+    jvmArgs("--add-opens=java.base/java.lang=ALL-UNNAMED")
 }
 
 tasks.withType<JavaCompile> {
@@ -0,0 +1,75 @@
+package io.github.skykatik.staticbundle.gen;
+
+import java.util.Set;
+
+// Format specifiers of arguments, which are implemented by ArgumentFormat of the core
+final class ArgFormats {
+
+    static final Set<String> NUMBER_TYPES = Set.of(
+            "long", "int", "short", "byte", "double", "float",
+            "Long", "Integer", "Short", "Byte", "Double", "Float",
+            "BigDecimal", "BigInteger", "Number");
+
+    static final Set<String> TEMPORAL_TYPES = Set.of(
+            "Instant", "LocalDate", "LocalTime", "LocalDateTime",
+            "ZonedDateTime", "OffsetDateTime", "OffsetTime", "TemporalAccessor");
+
+    static final Set<String> NUMBER_FORMATS = Set.of("number", "integer", "percent", "currency");
+    static final Set<String> STYLES = Set.of("short", "medium", "long", "full");
+
+    // Types with fields of date and time
+    static final Set<String> DATE_TYPES = Set.of(
+            "Instant", "LocalDate", "LocalDateTime", "ZonedDateTime", "OffsetDateTime", "TemporalAccessor");
+    static final Set<String> TIME_TYPES = Set.of(
+            "Instant", "LocalTime", "LocalDateTime", "ZonedDateTime", "OffsetDateTime", "OffsetTime", "TemporalAccessor");
+    // Long and full time styles print the zone id
+    static final Set<String> ZONED_TYPES = Set.of("Instant", "ZonedDateTime", "TemporalAccessor");
+
+    private ArgFormats() {
+    }
+
+    // Returns description of the problem, or null when the type can be formatted
+    static String check(String type, String format) {
+        String simpleType = simpleName(type);
+        if (NUMBER_FORMATS.contains(format)) {
+            return NUMBER_TYPES.contains(simpleType) ? null
+                    : "with format '" + format + "' must have numeric type, but has '" + type + "'";
+        }
+
+        int dash = format.indexOf('-');
+        String kind = dash != -1 ? format.substring(0, dash) : format;
+        String style = dash != -1 ? format.substring(dash + 1) : "";
+        if (!STYLES.contains(style) || !kind.equals("date") && !kind.equals("time") && !kind.equals("datetime")) {
+            return "has unknown format '" + format + "'";
+        }
+
+        boolean date = !kind.equals("time");
+        boolean time = !kind.equals("date");
+        if (date && !DATE_TYPES.contains(simpleType) || time && !TIME_TYPES.contains(simpleType)) {
+            return "with format '" + format + "' must have type with " + (date && time ? "date and time" : kind) +
+                    ", but has '" + type + "'";
+        }
+        if (time && (style.equals("long") || style.equals("full")) && !ZONED_TYPES.contains(simpleType)) {
+            return "with format '" + format + "' must have type with time zone, but has '" + type + "'";
+        }
+        return null;
+    }
+
+    static String simpleName(String type) {
+        for (String pkg : new String[]{"java.lang.", "java.math.", "java.time.temporal.", "java.time."}) {
+            if (type.startsWith(pkg) && type.indexOf('.', pkg.length()) == -1) {
+                return type.substring(pkg.length());
+            }
+        }
+        return type;
+    }
+
+    // Grouping separators take about a third of digits, localized dates and times are about of the same length
+    static int sizeHint(String type, String format) {
+        int sizeHint = StaticBundleProcessor.typeSizeHint(type);
+        if (format == null) {
+            return sizeHint;
+        }
+        return NUMBER_FORMATS.contains(format) ? sizeHint + sizeHint / 3 : 2 * StaticBundleProcessor.DEFAULT_ARG_SIZE_HINT;
+    }
+}
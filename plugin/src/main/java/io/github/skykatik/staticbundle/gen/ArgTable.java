@@ -1,8 +1,9 @@
 package io.github.skykatik.staticbundle.gen;
 
+import java.io.Serializable;
 import java.util.Arrays;
 
-class ArgTable {
+class ArgTable implements Serializable {
     static final String[] EMPTY_STRING_ARRAY = new String[0];
 
     String[] names = EMPTY_STRING_ARRAY;
@@ -0,0 +1,150 @@
+package io.github.skykatik.staticbundle.gen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Parsed bundles and models, which are shared by processors of all tasks and builds of the daemon.
+// Bundles are keyed by the hash of their contents, so the same file of different source sets and
+// projects is parsed once. Models are stored serialized, as processors change them after parsing,
+// and every hit gets its own copy. Entries are evicted in LRU order when their estimated size
+// exceeds the limit.
+public final class BundleCache {
+    // Rough size of a map entry with its key and value strings, without the chars
+    static final int ENTRY_OVERHEAD = 96;
+
+    final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    long maxSize;
+    long size;
+
+    public BundleCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized long maxSize() {
+        return maxSize;
+    }
+
+    // Limit is a setting of the build, so it may change between builds, which share the cache
+    public synchronized void resize(long maxSize) {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> properties(String contentHash) {
+        var entry = get(contentHash);
+        return entry != null ? (Map<String, String>) entry.value : null;
+    }
+
+    void putProperties(String contentHash, Map<String, String> properties) {
+        long size = ENTRY_OVERHEAD;
+        for (var e : properties.entrySet()) {
+            size += ENTRY_OVERHEAD + 2L * (e.getKey().length() + e.getValue().length());
+        }
+        put(contentHash, properties, size);
+    }
+
+    byte[] model(ModelKey key) {
+        var entry = get(key);
+        return entry != null ? (byte[]) entry.value : null;
+    }
+
+    void putModel(ModelKey key, byte[] model) {
+        put(key, model, ENTRY_OVERHEAD + model.length);
+    }
+
+    synchronized Entry get(Object key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(Object key, Object value, long entrySize) {
+        if (entrySize > maxSize) {
+            return;
+        }
+
+        var previous = entries.put(key, new Entry(value, entrySize));
+        if (previous != null) {
+            size -= previous.size;
+        }
+        size += entrySize;
+        evict();
+    }
+
+    void evict() {
+        var it = entries.values().iterator();
+        while (size > maxSize) {
+            size -= it.next().size;
+            it.remove();
+        }
+    }
+
+    static String contentHash(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    // Hash of serialized form of settings with bytecode of its classes, or null when some of them isn't serializable
+    static String settingsHash(Object... settings) {
+        var result = new ByteArrayOutputStream();
+        try (var out = new SettingsOutputStream(result)) {
+            for (Object setting : settings) {
+                out.writeObject(setting);
+            }
+        } catch (NotSerializableException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return contentHash(result.toByteArray());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record Entry(Object value, long size) {
+    }
+
+    // Messages depend on contents of bundles, locales with their plural forms, naming and content transformer.
+    // The key only holds strings, so classes of build scripts aren't kept by the cache of the daemon
+    record ModelKey(List<String> locales, List<String> contentHashes, String settingsHash) {
+    }
+
+    // Classes of settings may be the ones of build scripts, which keep their names and serialized form
+    // after the script is changed, so the hash of their bytecode is written along with the descriptor.
+    // Serialized lambdas refer the class, which declares their code. Classes of the platform don't change
+    // within the daemon, and the ones without class file resource are only described by name
+    static final class SettingsOutputStream extends ObjectOutputStream {
+
+        SettingsOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) throws IOException {
+            var loader = cl.getClassLoader();
+            if (loader == null) {
+                return;
+            }
+            try (InputStream in = loader.getResourceAsStream(cl.getName().replace('.', '/') + ".class")) {
+                if (in != null) {
+                    write(sha256().digest(in.readAllBytes()));
+                }
+            }
+        }
+    }
+}
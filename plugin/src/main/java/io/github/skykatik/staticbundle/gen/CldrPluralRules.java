@@ -0,0 +1,310 @@
+package io.github.skykatik.staticbundle.gen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+// Plural rules of CLDR, compiled into Java code. Plural forms are numbered
+// in the order of categories: zero, one, two, few, many and the last is other.
+// Operands: n - absolute value, i - integer digits, v - number of visible fraction digits,
+// w - same as v, but without trailing zeros, f - visible fraction digits, t - same as f,
+// but without trailing zeros, e and c - exponent of compact decimal, which is always 0 here.
+final class CldrPluralRules extends PluralExpression {
+    static final List<String> CATEGORIES = List.of("zero", "one", "two", "few", "many");
+
+    static Properties data;
+
+    final String source;
+    final List<String> categories;
+    final List<Relation[][]> conditions;
+
+    CldrPluralRules(String source, List<String> categories, List<Relation[][]> conditions) {
+        super(false);
+        this.source = source;
+        this.categories = categories;
+        this.conditions = conditions;
+    }
+
+    static synchronized CldrPluralRules forLocale(Locale locale) {
+        if (data == null) {
+            var properties = new Properties();
+            try (InputStream in = CldrPluralRules.class.getResourceAsStream("cldr-plurals.properties")) {
+                properties.load(Objects.requireNonNull(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            data = properties;
+        }
+
+        // Rules of the root locale only have the category 'other'
+        String language = locale.getLanguage().isEmpty() ? "root" : locale.getLanguage();
+        String source = data.getProperty(language);
+        if (source == null) {
+            throw new IllegalStateException("[Locale: '" + locale + "'] No CLDR plural rules for language '" +
+                    language + "', specify pluralForms and pluralFunction of the locale");
+        }
+        return parse(source);
+    }
+
+    int formCount() {
+        return categories.size() + 1;
+    }
+
+    // region parsing
+
+    static CldrPluralRules parse(String source) {
+        var rules = new TreeMap<Integer, Relation[][]>();
+        for (String rule : source.split(";")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+
+            int colon = rule.indexOf(':');
+            int category = CATEGORIES.indexOf(rule.substring(0, colon).trim());
+            if (category == -1) {
+                throw new IllegalArgumentException("Unknown plural category in rule: '" + rule + "'");
+            }
+
+            String[] or = rule.substring(colon + 1).split(" or ");
+            var condition = new Relation[or.length][];
+            for (int k = 0; k < or.length; k++) {
+                String[] and = or[k].split(" and ");
+                condition[k] = new Relation[and.length];
+                for (int j = 0; j < and.length; j++) {
+                    condition[k][j] = Relation.parse(and[j].trim());
+                }
+            }
+            rules.put(category, condition);
+        }
+
+        var categories = new ArrayList<String>(rules.size());
+        for (int category : rules.keySet()) {
+            categories.add(CATEGORIES.get(category));
+        }
+        return new CldrPluralRules(source, categories, new ArrayList<>(rules.values()));
+    }
+
+    record Relation(char operand, long modulus, boolean negated, long[] ranges) {
+
+        static Relation parse(String text) {
+            int eq = text.indexOf('=');
+            boolean negated = text.charAt(eq - 1) == '!';
+            String expr = text.substring(0, negated ? eq - 1 : eq).trim();
+
+            char operand = expr.charAt(0);
+            if ("niftvwec".indexOf(operand) == -1) {
+                throw new IllegalArgumentException("Unknown plural operand in relation: '" + text + "'");
+            }
+
+            int percent = expr.indexOf('%');
+            long modulus = percent != -1 ? Long.parseLong(expr.substring(percent + 1).trim()) : 0;
+
+            String[] items = text.substring(eq + 1).trim().split(",");
+            long[] ranges = new long[items.length * 2];
+            for (int k = 0; k < items.length; k++) {
+                String item = items[k].trim();
+                int dots = item.indexOf("..");
+                ranges[k * 2] = Long.parseLong(dots != -1 ? item.substring(0, dots) : item);
+                ranges[k * 2 + 1] = Long.parseLong(dots != -1 ? item.substring(dots + 2) : item);
+            }
+            return new Relation(operand, modulus, negated, ranges);
+        }
+    }
+
+    // endregion
+
+    // region evaluation
+
+    @Override
+    long evaluate(long value) {
+        long i = value < 0 ? -value : value;
+        for (int form = 0; form < conditions.size(); form++) {
+            if (matches(conditions.get(form), i)) {
+                return form;
+            }
+        }
+        return conditions.size();
+    }
+
+    static boolean matches(Relation[][] condition, long i) {
+        for (var and : condition) {
+            boolean result = true;
+            for (var relation : and) {
+                long operand = switch (relation.operand) {
+                    case 'n', 'i' -> i;
+                    default -> 0;
+                };
+
+                if (relation.modulus != 0) {
+                    operand %= relation.modulus;
+                }
+
+                if (inRanges(relation.ranges, operand) == relation.negated) {
+                    result = false;
+                    break;
+                }
+            }
+
+            if (result) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean inRanges(long[] ranges, long value) {
+        for (int k = 0; k < ranges.length; k += 2) {
+            if (value >= ranges[k] && value <= ranges[k + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // endregion
+
+    // region code generation
+
+    // Generates the body of 'int name(long value)', integer operands are folded to constants
+    void generateIntegerBody(CharSink sink) throws IOException {
+        var variables = new TreeSet<String>();
+        String expression = formExpression(true, variables);
+        if (variables.contains("i")) {
+            sink.append("long i = value < 0 ? -value : value;");
+            sink.ln();
+        }
+        generateModuli(sink, variables);
+        sink.append("return ").append(expression).append(';');
+    }
+
+    // Generates the body of 'int name(long i, int v, long f)'
+    void generateBody(CharSink sink) throws IOException {
+        var variables = new TreeSet<String>();
+        String expression = formExpression(false, variables);
+        if (variables.contains("t")) {
+            sink.append("long t = PluralOperands.trimTrailingZeros(f);");
+            sink.ln();
+        }
+        if (variables.contains("w")) {
+            sink.append("int w = PluralOperands.trimmedFractionDigits(f, v);");
+            sink.ln();
+        }
+        generateModuli(sink, variables);
+        sink.append("return ").append(expression).append(';');
+    }
+
+    // Each modulus is computed once and shared by all relations
+    static void generateModuli(CharSink sink, Set<String> variables) throws IOException {
+        for (String variable : variables) {
+            if (variable.length() > 1) {
+                char operand = variable.charAt(0);
+                sink.append("long ").append(variable).append(" = ").append(operand);
+                sink.append(" % ").append(variable.substring(1)).append(';');
+                sink.ln();
+            }
+        }
+    }
+
+    String formExpression(boolean integer, Set<String> variables) {
+        var result = new StringBuilder();
+        for (int form = 0; form < conditions.size(); form++) {
+            String condition = conditionCode(conditions.get(form), integer, variables);
+            if (condition.equals("false")) {
+                continue;
+            } else if (condition.equals("true")) {
+                return result.append(form).toString();
+            }
+            result.append(condition).append(" ? ").append(form).append(" : ");
+        }
+        return result.append(conditions.size()).toString();
+    }
+
+    static String conditionCode(Relation[][] condition, boolean integer, Set<String> variables) {
+        var or = new ArrayList<String>();
+        for (var and : condition) {
+            var codes = new ArrayList<String>();
+            boolean result = true;
+            for (var relation : and) {
+                String code = relationCode(relation, integer, variables);
+                if (code.equals("false")) {
+                    result = false;
+                    break;
+                } else if (!code.equals("true")) {
+                    codes.add(code);
+                }
+            }
+
+            if (!result) {
+                continue;
+            }
+            if (codes.isEmpty()) {
+                return "true";
+            }
+            or.add(codes.size() == 1 ? codes.get(0) : String.join(" && ", codes));
+        }
+
+        if (or.isEmpty()) {
+            return "false";
+        } else if (or.size() == 1) {
+            return or.get(0);
+        }
+
+        var result = new StringJoiner(" || ");
+        for (String code : or) {
+            result.add(code.contains(" && ") ? "(" + code + ")" : code);
+        }
+        return result.toString();
+    }
+
+    static String relationCode(Relation relation, boolean integer, Set<String> variables) {
+        char operand = relation.operand;
+        // Operands which are known to be zero
+        if (operand == 'e' || operand == 'c' || integer && "vwft".indexOf(operand) != -1) {
+            return inRanges(relation.ranges, 0) != relation.negated ? "true" : "false";
+        }
+
+        // Integral ranges match n only if it has no fraction digits
+        boolean integral = operand == 'n' && !integer;
+        if (operand == 'n') {
+            operand = 'i';
+        }
+
+        variables.add(String.valueOf(operand));
+        String variable = String.valueOf(operand);
+        if (relation.modulus != 0) {
+            variable += relation.modulus;
+            variables.add(variable);
+        }
+
+        var ranges = new ArrayList<String>();
+        for (int k = 0; k < relation.ranges.length; k += 2) {
+            long from = relation.ranges[k];
+            long to = relation.ranges[k + 1];
+            if (from == to) {
+                ranges.add(variable + (relation.negated ? " != " : " == ") + from);
+            } else if (relation.negated) {
+                ranges.add("(" + variable + " < " + from + " || " + variable + " > " + to + ")");
+            } else {
+                ranges.add(variable + " >= " + from + " && " + variable + " <= " + to);
+            }
+        }
+
+        String code;
+        if (ranges.size() == 1) {
+            code = ranges.get(0);
+        } else if (relation.negated) {
+            code = String.join(" && ", ranges);
+        } else {
+            code = "(" + String.join(" || ", ranges) + ")";
+        }
+
+        if (integral) {
+            variables.add("f");
+            code = relation.negated ? "(f != 0 || " + code + ")" : "f == 0 && " + code;
+        }
+        return code;
+    }
+
+    // endregion
+}
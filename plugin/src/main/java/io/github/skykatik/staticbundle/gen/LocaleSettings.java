@@ -1,6 +1,9 @@
 package io.github.skykatik.staticbundle.gen;
 
+import io.github.skykatik.staticbundle.plugin.LocaleParameters;
+
 import java.util.Locale;
+import java.util.Map;
 
 final class LocaleSettings {
     final Locale locale;
@@ -8,31 +11,58 @@ final class LocaleSettings {
     final int localeTagValue;
     final int pluralFormsCount;
     final String pluralFormFunction;
+    // Not null when plural form is selected with built-in CLDR rules
+    final CldrPluralRules cldrRules;
 
+    // Not null when missing properties are inherited from the other locale
+    LocaleSettings parent;
     String relativeResourcePath;
+    // Properties of the bundle file as is
+    Map<String, String> bundleProperties = Map.of();
 
     LocaleSettings(Locale locale, String localeTag, int localeTagValue,
-                   int pluralFormsCount, String pluralFormFunction) {
+                   int pluralFormsCount, String pluralFormFunction, CldrPluralRules cldrRules) {
         this.locale = locale;
         this.localeTag = localeTag;
         this.localeTagValue = localeTagValue;
         this.pluralFormsCount = pluralFormsCount;
         this.pluralFormFunction = pluralFormFunction;
+        this.cldrRules = cldrRules;
     }
 
-    LocaleSettings(io.github.skykatik.staticbundle.plugin.LocaleSettings internal, int localeTagValue) {
-        this(internal.getLocale().get(), localeTagValue, internal.getPluralForms().get(),
-                internal.getPluralFunction().get());
+    static LocaleSettings create(LocaleParameters internal, int localeTagValue,
+                                 boolean cldrPlurals, Map<String, String> cldrFunctions) {
+        var locale = locale(internal);
+        String localeTag = translateLocaleToTag(locale);
+
+        // Hand-written plural function overrides CLDR rules
+        if (!cldrPlurals || internal.getPluralFunction().isPresent()) {
+            return new LocaleSettings(locale, localeTag, localeTagValue, internal.getPluralForms().get(),
+                    internal.getPluralFunction().get(), null);
+        }
+
+        // Locales with the same rules share the generated function
+        var rules = CldrPluralRules.forLocale(locale);
+        String function = cldrFunctions.computeIfAbsent(rules.source, s -> cldrFunctionName(localeTag));
+        return new LocaleSettings(locale, localeTag, localeTagValue, rules.formCount(), function + "(value)", rules);
     }
 
-    LocaleSettings(Locale locale, int localeTagValue, int pluralFormsCount, String pluralFormFunction) {
-        this(locale, translateLocaleToTag(locale), localeTagValue, pluralFormsCount, pluralFormFunction);
+    // Constructor keeps legacy locales as is, e.g. no_NO_NY or ja_JP_JP with its calendar extension,
+    // but only the builder accepts the script
+    static Locale locale(LocaleParameters internal) {
+        var locale = new Locale(internal.getLanguage().get(), internal.getCountry().get(), internal.getVariant().get());
+        String script = internal.getScript().get();
+        return script.isEmpty() ? locale : new Locale.Builder().setLocale(locale).setScript(script).build();
     }
 
     IllegalStateException problem(String key, String text) {
         return new IllegalStateException("[Bundle: '" + relativeResourcePath + "', property: '" + key + "'] " + text);
     }
 
+    static String cldrFunctionName(String localeTag) {
+        return "pluralForm" + StaticBundleProcessor.subclassName(localeTag);
+    }
+
     static String translateLocaleToTag(Locale locale) {
         if (locale.equals(Locale.ROOT)) {
             return "ROOT";
@@ -48,6 +78,7 @@ final class LocaleSettings {
                 ", localeTagValue=" + localeTagValue +
                 ", pluralFormsCount=" + pluralFormsCount +
                 ", pluralFormFunction='" + pluralFormFunction + '\'' +
+                ", parent=" + (parent != null ? parent.locale : null) +
                 ", relativeResourcePath='" + relativeResourcePath + '\'' +
                 '}';
     }
@@ -0,0 +1,175 @@
+package io.github.skykatik.staticbundle.gen;
+
+import java.util.*;
+
+// Minimal perfect hash of property keys, which is read at runtime by
+// io.github.skykatik.staticbundle.PerfectHash. Keys are distributed into buckets
+// by String.hashCode(), then buckets from the largest one get the first seed,
+// which puts all their keys into free slots (hash and displace). Keys with equal
+// hashCode() share a bucket and are separated by the seeded hash of characters.
+final class PerfectHash {
+    static final int SEED_STEP = 0x9E3779B9;
+    // Seeds are stored as chars
+    static final int MAX_SEED = Character.MAX_VALUE;
+    static final int MAX_SALTS = 64;
+
+    final int salt;
+    final String[/*slot*/] keys;
+    final char[/*bucket*/] seeds;
+
+    PerfectHash(int salt, String[] keys, char[] seeds) {
+        this.salt = salt;
+        this.keys = keys;
+        this.seeds = seeds;
+    }
+
+    static PerfectHash build(Collection<String> keys) {
+        var distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinct.size() != keys.size()) {
+            throw new IllegalArgumentException("Keys are not unique");
+        }
+
+        // Almost all attempts succeed with the first salt, other ones only change the distribution of buckets
+        for (int salt = 0; salt < MAX_SALTS; salt++) {
+            var result = tryBuild(distinct, salt);
+            if (result != null) {
+                result.verify(distinct);
+                return result;
+            }
+        }
+        throw new IllegalStateException("Can't build perfect hash of " + keys.size() + " keys");
+    }
+
+    static PerfectHash tryBuild(List<String> keys, int salt) {
+        int size = keys.size();
+        int bucketCount = Math.max(size, 1);
+
+        var buckets = new ArrayList<List<String>>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>(1));
+        }
+        for (String key : keys) {
+            buckets.get(bucket(key, salt, bucketCount)).add(key);
+        }
+
+        var order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer b) -> buckets.get(b).size()).reversed());
+
+        var slots = new String[size];
+        var seeds = new char[bucketCount];
+        var taken = new int[8];
+        for (int b : order) {
+            var bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+
+            int seed = findSeed(bucket, salt, slots, taken);
+            if (seed == -1) {
+                return null;
+            }
+            seeds[b] = (char) seed;
+            for (String key : bucket) {
+                slots[slot(key, salt, (char) seed, size)] = key;
+            }
+        }
+        return new PerfectHash(salt, slots, seeds);
+    }
+
+    // First seed, which puts all keys of the bucket into distinct free slots, or -1
+    static int findSeed(List<String> bucket, int salt, String[] slots, int[] taken) {
+        if (taken.length < bucket.size()) {
+            taken = new int[bucket.size()];
+        }
+
+        seeds:
+        for (int seed = 0; seed <= MAX_SEED; seed++) {
+            for (int i = 0; i < bucket.size(); i++) {
+                int slot = slot(bucket.get(i), salt, (char) seed, slots.length);
+                if (slots[slot] != null) {
+                    continue seeds;
+                }
+                for (int k = 0; k < i; k++) {
+                    if (taken[k] == slot) {
+                        continue seeds;
+                    }
+                }
+                taken[i] = slot;
+            }
+            return seed;
+        }
+        return -1;
+    }
+
+    // Checks that the hash, as it will be read by generated code, finds every key
+    void verify(List<String> expected) {
+        for (String key : expected) {
+            int slot = indexOf(key);
+            if (slot == -1 || !keys[slot].equals(key)) {
+                throw new IllegalStateException("Perfect hash doesn't find key '" + key + "'");
+            }
+        }
+    }
+
+    int indexOf(String key) {
+        if (keys.length == 0) {
+            return -1;
+        }
+        int slot = slot(key, salt, seeds[bucket(key, salt, seeds.length)], keys.length);
+        return keys[slot].equals(key) ? slot : -1;
+    }
+
+    // Contents of string literals with escape per seed, octal one for the most of them.
+    // Each chunk fits into a single constant pool entry
+    List<String> seedChunks() {
+        var chunks = new ArrayList<String>();
+        var chunk = new StringBuilder();
+        int chunkLength = 0;
+        for (char seed : seeds) {
+            int length = TextTable.modifiedUtf8Length(seed);
+            if (chunkLength + length > TextTable.MAX_CHUNK_LENGTH) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+                chunkLength = 0;
+            }
+
+            if (seed < 0x100) {
+                chunk.append('\\').append(Integer.toOctalString(seed));
+            } else {
+                chunk.append(String.format("\\u%04x", (int) seed));
+            }
+            chunkLength += length;
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk.toString());
+        }
+        return chunks;
+    }
+
+    // Same functions as in io.github.skykatik.staticbundle.PerfectHash, PerfectHashTest compares them
+
+    static int bucket(String key, int salt, int bucketCount) {
+        return reduce(mix(key.hashCode() ^ salt), bucketCount);
+    }
+
+    static int slot(String key, int salt, char seed, int size) {
+        int hash = salt ^ (seed + 1) * SEED_STEP;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x01000193;
+        }
+        return reduce(mix(hash), size);
+    }
+
+    static int mix(int hash) {
+        hash = (hash ^ hash >>> 16) * 0x85EBCA6B;
+        return hash ^ hash >>> 13;
+    }
+
+    static int reduce(int hash, int n) {
+        return (int) ((hash & 0xFFFFFFFFL) * n >>> 32);
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.skykatik.staticbundle.gen;
+
+// Interpreter for the subset of Java expressions used as plural functions,
+// so they can be evaluated at build time. Arithmetic follows Java semantics:
+// it is done on long values when one of operands is long, e.g. 'value' or '10L',
+// and overflows as int otherwise. Booleans are represented as 0 and 1.
+abstract class PluralExpression {
+    final boolean isLong;
+
+    PluralExpression(boolean isLong) {
+        this.isLong = isLong;
+    }
+
+    abstract long evaluate(long value);
+
+    static PluralExpression parse(String text) {
+        var parser = new Parser(text);
+        var result = parser.ternary();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.problem("Unexpected character");
+        }
+        return result;
+    }
+
+    static final class Parser {
+        final String text;
+        int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        PluralExpression ternary() {
+            var condition = or();
+            if (!accept("?")) {
+                return condition;
+            }
+
+            var then = ternary();
+            expect(":");
+            var otherwise = ternary();
+            return new PluralExpression(then.isLong || otherwise.isLong) {
+                @Override
+                long evaluate(long value) {
+                    return condition.evaluate(value) != 0 ? then.evaluate(value) : otherwise.evaluate(value);
+                }
+            };
+        }
+
+        PluralExpression or() {
+            var left = and();
+            while (accept("||")) {
+                var l = left;
+                var r = and();
+                left = new PluralExpression(false) {
+                    @Override
+                    long evaluate(long value) {
+                        return l.evaluate(value) != 0 || r.evaluate(value) != 0 ? 1 : 0;
+                    }
+                };
+            }
+            return left;
+        }
+
+        PluralExpression and() {
+            var left = equality();
+            while (accept("&&")) {
+                var l = left;
+                var r = equality();
+                left = new PluralExpression(false) {
+                    @Override
+                    long evaluate(long value) {
+                        return l.evaluate(value) != 0 && r.evaluate(value) != 0 ? 1 : 0;
+                    }
+                };
+            }
+            return left;
+        }
+
+        PluralExpression equality() {
+            var left = relational();
+            while (true) {
+                String op = accept("==") ? "==" : accept("!=") ? "!=" : null;
+                if (op == null) {
+                    return left;
+                }
+                left = binary(op, left, relational());
+            }
+        }
+
+        PluralExpression relational() {
+            var left = additive();
+            while (true) {
+                String op = accept("<=") ? "<=" : accept(">=") ? ">=" : accept("<") ? "<" : accept(">") ? ">" : null;
+                if (op == null) {
+                    return left;
+                }
+                left = binary(op, left, additive());
+            }
+        }
+
+        PluralExpression additive() {
+            var left = multiplicative();
+            while (true) {
+                String op = accept("+") ? "+" : accept("-") ? "-" : null;
+                if (op == null) {
+                    return left;
+                }
+                left = binary(op, left, multiplicative());
+            }
+        }
+
+        PluralExpression multiplicative() {
+            var left = unary();
+            while (true) {
+                String op = accept("*") ? "*" : accept("/") ? "/" : accept("%") ? "%" : null;
+                if (op == null) {
+                    return left;
+                }
+                left = binary(op, left, unary());
+            }
+        }
+
+        PluralExpression unary() {
+            if (accept("-")) {
+                var operand = unary();
+                return new PluralExpression(operand.isLong) {
+                    @Override
+                    long evaluate(long value) {
+                        long result = -operand.evaluate(value);
+                        return isLong ? result : (int) result;
+                    }
+                };
+            } else if (accept("!")) {
+                var operand = unary();
+                return new PluralExpression(false) {
+                    @Override
+                    long evaluate(long value) {
+                        return operand.evaluate(value) == 0 ? 1 : 0;
+                    }
+                };
+            } else if (accept("+")) {
+                return unary();
+            }
+            return primary();
+        }
+
+        PluralExpression primary() {
+            skipWhitespace();
+            if (accept("(int)")) {
+                var operand = unary();
+                return new PluralExpression(false) {
+                    @Override
+                    long evaluate(long value) {
+                        return (int) operand.evaluate(value);
+                    }
+                };
+            } else if (accept("(")) {
+                var result = ternary();
+                expect(")");
+                return result;
+            } else if (text.startsWith("value", pos) && !isIdentifierPart(pos + 5)) {
+                pos += 5;
+                return new PluralExpression(true) {
+                    @Override
+                    long evaluate(long value) {
+                        return value;
+                    }
+                };
+            }
+
+            int start = pos;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw problem("Unsupported expression");
+            }
+
+            long constant;
+            try {
+                constant = Long.parseLong(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw problem("Malformed number");
+            }
+            boolean isLong = pos < text.length() && (text.charAt(pos) == 'L' || text.charAt(pos) == 'l');
+            if (isLong) {
+                pos++;
+            }
+
+            return new PluralExpression(isLong) {
+                @Override
+                long evaluate(long value) {
+                    return constant;
+                }
+            };
+        }
+
+        static PluralExpression binary(String op, PluralExpression l, PluralExpression r) {
+            boolean arithmetic = "+-*/%".contains(op);
+            return new PluralExpression(arithmetic && (l.isLong || r.isLong)) {
+                @Override
+                long evaluate(long value) {
+                    long a = l.evaluate(value);
+                    long b = r.evaluate(value);
+                    long result = switch (op) {
+                        case "==" -> a == b ? 1 : 0;
+                        case "!=" -> a != b ? 1 : 0;
+                        case "<" -> a < b ? 1 : 0;
+                        case "<=" -> a <= b ? 1 : 0;
+                        case ">" -> a > b ? 1 : 0;
+                        case ">=" -> a >= b ? 1 : 0;
+                        case "+" -> a + b;
+                        case "-" -> a - b;
+                        case "*" -> a * b;
+                        case "/" -> a / b;
+                        case "%" -> a % b;
+                        default -> throw new IllegalStateException("Unknown operator '" + op + "'");
+                    };
+                    return isLong ? result : (int) result;
+                }
+            };
+        }
+
+        boolean isIdentifierPart(int i) {
+            return i < text.length() && Character.isJavaIdentifierPart(text.charAt(i));
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean accept(String token) {
+            skipWhitespace();
+            if (!text.startsWith(token, pos)) {
+                return false;
+            }
+
+            // Do not take prefix of longer operator, like '<' of '<=' or '|' of '||'
+            int end = pos + token.length();
+            if (token.length() == 1 && end < text.length()) {
+                char c = token.charAt(0);
+                char next = text.charAt(end);
+                if (next == '=' && "<>!=".indexOf(c) != -1 || next == c && "&|+-".indexOf(c) != -1) {
+                    return false;
+                }
+            }
+
+            pos = end;
+            return true;
+        }
+
+        void expect(String token) {
+            if (!accept(token)) {
+                throw problem("Expected '" + token + "'");
+            }
+        }
+
+        IllegalArgumentException problem(String text) {
+            return new IllegalArgumentException(text + " at index " + pos + " of '" + this.text + "'");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.skykatik.staticbundle.gen;
+
+// Plural forms of values [0, size) precomputed from the plural function of locale.
+// Locales with the same plural function share the table.
+final class PluralTable {
+    final String fieldName;
+    final byte[] forms;
+
+    PluralTable(String fieldName, byte[] forms) {
+        this.fieldName = fieldName;
+        this.forms = forms;
+    }
+
+    static PluralTable build(LocaleSettings settings, int size) {
+        PluralExpression expression = settings.cldrRules;
+        try {
+            if (expression == null) {
+                expression = PluralExpression.parse(settings.pluralFormFunction);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("[Locale: '" + settings.locale + "'] Plural function " +
+                    "can not be evaluated at build time, disable plural table: " + e.getMessage(), e);
+        }
+
+        var forms = new byte[size];
+        for (int value = 0; value < size; value++) {
+            long form = expression.evaluate(value);
+            if (form < 0 || form >= settings.pluralFormsCount) {
+                throw new IllegalStateException("[Locale: '" + settings.locale + "'] Plural function returned " + form +
+                        " for value " + value + ", which is out of range [0, " + settings.pluralFormsCount + ")");
+            }
+            forms[value] = (byte) form;
+        }
+
+        return new PluralTable(settings.localeTag, forms);
+    }
+
+    // Content of string literal with octal escape per value,
+    // which yields the table with String.getBytes(ISO_8859_1)
+    String literal() {
+        var result = new StringBuilder(forms.length * 2);
+        for (byte form : forms) {
+            result.append('\\').append(Integer.toOctalString(form));
+        }
+        return result.toString();
+    }
+}
@@ -1,19 +1,38 @@
 package io.github.skykatik.staticbundle.gen;
 
-import io.github.skykatik.staticbundle.plugin.DefaultSourceSetSettings;
+import io.github.skykatik.staticbundle.gen.BundleCache.ModelKey;
+import io.github.skykatik.staticbundle.plugin.ConcatStrategy;
+import io.github.skykatik.staticbundle.plugin.ContentTransformer;
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy;
+import io.github.skykatik.staticbundle.plugin.LocaleParameters;
 import io.github.skykatik.staticbundle.plugin.PropertyNaming;
-import org.gradle.api.Project;
+import io.github.skykatik.staticbundle.plugin.StaticBundleParameters;
 import org.gradle.api.file.Directory;
-import org.gradle.api.file.FileCollection;
 
 import javax.lang.model.SourceVersion;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.github.skykatik.staticbundle.gen.ArgTable.EMPTY_STRING_ARRAY;
 
@@ -22,22 +41,60 @@ public class StaticBundleProcessor {
     static final int REFERENCE_LOCALE_TAG = 0;
     static final String indent = " ".repeat(4);
     static final int lineWrap = 120;
-
-    final Project project;
+    static final int LOOKUP_RANGE_SHIFT = 6;
+    static final int LOOKUP_RANGE_SIZE = 1 << LOOKUP_RANGE_SHIFT;
+    static final int PARSER_THREADS = Runtime.getRuntime().availableProcessors();
+    // Parsers of all processors in the daemon share these threads, so concurrent workers of a build
+    // don't oversubscribe CPUs. Idle threads exit, as classes of the plugin stay loaded between builds
+    static final ExecutorService PARSERS = parserExecutor();
+
+    // Bundle paths in messages are relative to it
+    final Path projectDir;
     final Path resultPath;
     final String packageName;
     final String className;
     final String resourceFilenameFormat;
-    final FileCollection resources;
+    // Bundle files by name, the first one of files with the same name
+    final Map<String, Path> bundleFiles = new HashMap<>();
     final ProcessingResources procResources;
+    final GenerationStrategy strategy;
+    final boolean appendMethods;
+    final boolean utf8Methods;
+    final List<Output> outputs = new ArrayList<>();
+    final int pluralTableSize;
+    final boolean lazyLocales;
+    final ConcatStrategy concatStrategy;
+    final boolean inlinePropertyArgs;
+    final boolean lookupMethods;
+    final boolean resourceBundles;
+    // Ids of properties for lookup by key, only with lookup methods
+    PerfectHash keyHash;
+    // Layout of message texts, only for GenerationStrategy.TABLE
+    TextTable textTable;
+    final LinkedHashMap<String, PluralTable> pluralTables = new LinkedHashMap<>();
+    // Constant raw arguments and messages by their initializer, registered while printing messages
+    final LinkedHashMap<String, Constant> constants = new LinkedHashMap<>();
+    // Holder classes of per-locale formats by format specifier, registered while printing messages
+    final LinkedHashMap<String, String> argFormats = new LinkedHashMap<>();
     // TODO: configure property order
     final TreeMap<String, Property> properties = new TreeMap<>();
-
-    public StaticBundleProcessor(Project project, Directory codegenDir,
-                                 FileCollection resources, DefaultSourceSetSettings sett) {
-
-        this.project = project;
-        this.resources = resources;
+    // Number of locales, which bundles are parsed in this run
+    int parsedLocales;
+    // Shared with processors of other tasks, null when nothing is cached
+    final BundleCache cache;
+    // Contents of bundles by locale tag, only when they are read up front to look up the cached model
+    BundleFile[] readBundles;
+    boolean cachedModel;
+
+    public StaticBundleProcessor(Path projectDir, Directory codegenDir, Iterable<File> resources,
+                                 StaticBundleParameters sett, BundleCache cache) {
+
+        this.projectDir = projectDir;
+        this.cache = cache;
+        // Resources are only iterated once, as there may be many of them
+        for (File resource : resources) {
+            bundleFiles.putIfAbsent(resource.getName(), resource.toPath());
+        }
 
         resourceFilenameFormat = sett.getResourceFilenameFormat().get();
 
@@ -49,126 +106,500 @@ public class StaticBundleProcessor {
         String translated = baseName.replace('.', '/');
         resultPath = codegenDir.file(translated + ".java").getAsFile().toPath();
 
-        var internalSettings = sett.getSettings();
+        var internalSettings = sett.getLocaleSettings().get();
         var locales = new ArrayList<LocaleSettings>(internalSettings.size());
+        boolean cldrPlurals = sett.getCldrPlurals().get();
+        var cldrFunctions = new HashMap<String, String>();
         for (int i = 0; i < internalSettings.size(); i++) {
             var internal = internalSettings.get(i);
 
-            locales.add(new LocaleSettings(internal, i));
+            locales.add(LocaleSettings.create(internal, i, cldrPlurals, cldrFunctions));
         }
+        resolveParents(internalSettings, locales);
 
         var naming = sett.getNaming().get();
         var contentTransformer = sett.getContentTransformer().get();
         procResources = new ProcessingResources(locales, naming, contentTransformer);
+        strategy = sett.getGenerationStrategy().get();
+        appendMethods = sett.getAppendMethods().get();
+        utf8Methods = sett.getUtf8Methods().get();
+        pluralTableSize = sett.getPluralTableSize().get();
+        lazyLocales = sett.getLazyLocales().get();
+        concatStrategy = sett.getConcatStrategy().get();
+        inlinePropertyArgs = sett.getInlinePropertyArgs().get();
+        lookupMethods = sett.getLookupMethods().get();
+        resourceBundles = sett.getResourceBundles().get();
+        if (lazyLocales && strategy == GenerationStrategy.SWITCH) {
+            throw new IllegalStateException("Lazy locales require " + GenerationStrategy.SUBCLASS +
+                    " or " + GenerationStrategy.TABLE + " generation strategy");
+        }
+        if (appendMethods) {
+            outputs.add(Output.STRING_BUILDER);
+            outputs.add(Output.APPENDABLE);
+        }
+        if (utf8Methods) {
+            outputs.add(Output.BYTE_BUFFER);
+            outputs.add(Output.OUTPUT_STREAM);
+        }
+    }
+
+    static void resolveParents(List<LocaleParameters> internalSettings, List<LocaleSettings> locales) {
+        for (int i = 0; i < locales.size(); i++) {
+            var settings = locales.get(i);
+            var parentLocale = internalSettings.get(i).getParent().getOrNull();
+            if (parentLocale == null) {
+                continue;
+            }
+            if (i == REFERENCE_LOCALE_TAG) {
+                throw new IllegalStateException("Reference locale '" + settings.locale + "' can't have a parent");
+            }
+
+            for (var candidate : locales) {
+                if (candidate.locale.toString().equals(parentLocale)) {
+                    settings.parent = candidate;
+                    break;
+                }
+            }
+            if (settings.parent == null) {
+                throw new IllegalStateException("Parent locale '" + parentLocale +
+                        "' of '" + settings.locale + "' is not declared");
+            }
+        }
+
+        for (var settings : locales) {
+            var chain = new StringBuilder().append(settings.locale);
+            int depth = 0;
+            for (var p = settings.parent; p != null; p = p.parent) {
+                chain.append(" -> ").append(p.locale);
+                if (p == settings || ++depth == locales.size()) {
+                    throw new IllegalStateException("Recursive parent locales: " + chain);
+                }
+            }
+        }
     }
 
     public void validate() throws IOException {
+        validate(null, null);
+    }
 
+    // Parsed bundles are stored into the model file before inheritance and checks, which depend on other locales.
+    // With files changed since the previous run only the bundles of their locales are parsed again on top of
+    // the stored model, unless the reference bundle is changed or the model can't be read.
+    // Otherwise the model is taken from the cache, when some other processor has parsed the same bundles
+    public void validate(Path modelFile, Collection<File> changedFiles) throws IOException {
         var referenceSettings = procResources.locales.get(REFERENCE_LOCALE_TAG);
-        var referenceBundle = loadBundle(referenceSettings.locale);
-        referenceSettings.relativeResourcePath = project.relativePath(referenceBundle.resourcePath);
-        for (var e : referenceBundle.properties.entrySet()) {
-            String key = e.getKey();
-            String text = e.getValue();
-
-            var parts = procResources.naming.parse(key);
-            properties.compute(parts.baseKey(), (k, base) -> {
-                if (base == null) {
-                    return parseProperty(referenceSettings, parts, key, text);
+        var changedLocales = changedFiles != null && modelFile != null ? changedLocales(changedFiles) : null;
+        ModelKey modelKey = null;
+        if (changedLocales != null && readModel(modelFile)) {
+            for (var settings : changedLocales) {
+                for (Property property : properties.values()) {
+                    if (property instanceof OrdinalProperty p) {
+                        p.messages[settings.localeTagValue] = null;
+                    } else if (property instanceof PluralProperty p) {
+                        p.messages[settings.localeTagValue] = null;
+                    }
                 }
-                base.merge(procResources, referenceSettings, parts, key, text);
-                return base;
-            });
+            }
+            parsedLocales = changedLocales.size();
+        } else if (cache != null && restoreModel(cache.model(modelKey = loadBundles()))) {
+            for (var settings : procResources.locales) {
+                settings.relativeResourcePath = readBundles[settings.localeTagValue].resourcePath;
+            }
+            changedLocales = List.of();
+            cachedModel = true;
+        } else {
+            var referenceBundle = bundle(referenceSettings);
+            referenceSettings.relativeResourcePath = referenceBundle.resourcePath;
+            referenceSettings.bundleProperties = referenceBundle.properties;
+            for (var e : referenceBundle.properties.entrySet()) {
+                String key = e.getKey();
+                String text = e.getValue();
+
+                var parts = procResources.naming.parse(key);
+                properties.compute(parts.baseKey(), (k, base) -> {
+                    if (base == null) {
+                        return parseProperty(referenceSettings, parts, key, text);
+                    }
+                    base.merge(procResources, referenceSettings, parts, key, text);
+                    return base;
+                });
+            }
+
+            checkForMissingPluralForms(referenceSettings);
+            checkForUnresolvedPropertyArgs(referenceSettings);
+            checkForRecursivePropertyArgs(referenceSettings);
+
+            changedLocales = procResources.locales.subList(1, procResources.locales.size());
+            parsedLocales = procResources.locales.size();
         }
 
-        checkForMissingPluralForms(referenceSettings);
-        checkForUnresolvedPropertyArgs(referenceSettings);
+        parseLocaleBundles(changedLocales);
+        if (modelFile != null || modelKey != null && !cachedModel) {
+            byte[] model = serializeModel();
+            if (modelFile != null) {
+                Files.createDirectories(modelFile.getParent());
+                Files.write(modelFile, model);
+            }
+            if (modelKey != null && !cachedModel) {
+                cache.putModel(modelKey, model);
+            }
+        }
 
+        // Parents may be declared after their children, so inheritance waits for all bundles
+        var inherited = new boolean[procResources.locales.size()];
         for (int i = 1; i < procResources.locales.size(); i++) {
             var settings = procResources.locales.get(i);
-            var bundle = loadBundle(settings.locale);
-            settings.relativeResourcePath = bundle.resourcePath;
+            inheritFromParent(settings, inherited);
+
+            checkForMissingPluralForms(settings);
+            checkForUnresolvedPropertyArgs(settings);
+            checkForRecursivePropertyArgs(settings);
+        }
+
+        resolveArgFormats();
+    }
+
+    // Locales of changed bundles or null, when the reference one is changed
+    List<LocaleSettings> changedLocales(Collection<File> changedFiles) {
+        var names = new HashSet<String>();
+        for (File file : changedFiles) {
+            names.add(file.getName());
+        }
+
+        var result = new ArrayList<LocaleSettings>();
+        for (var settings : procResources.locales) {
+            if (names.contains(bundleFileName(settings.locale))) {
+                if (settings.localeTagValue == REFERENCE_LOCALE_TAG) {
+                    return null;
+                }
+                result.add(settings);
+            }
+        }
+        return result;
+    }
+
+    // Only locales and their plural forms are checked, other settings are inputs of the task,
+    // so Gradle doesn't run it incrementally when they change
+    boolean readModel(Path modelFile) throws IOException {
+        return Files.isRegularFile(modelFile) && restoreModel(Files.readAllBytes(modelFile));
+    }
+
+    boolean restoreModel(byte[] serialized) {
+        if (serialized == null) {
+            return false;
+        }
+
+        ParsedModel model;
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            model = (ParsedModel) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Model of other version of the plugin, so everything is parsed again
+            return false;
+        }
+
+        if (!model.locales.equals(modelLocales())) {
+            return false;
+        }
+        properties.putAll(model.properties);
+        for (var settings : procResources.locales) {
+            settings.relativeResourcePath = model.resourcePaths.get(settings.localeTagValue);
+            settings.bundleProperties = model.bundleProperties.get(settings.localeTagValue);
+        }
+        return true;
+    }
+
+    byte[] serializeModel() throws IOException {
+        var resourcePaths = new ArrayList<String>();
+        var bundleProperties = new ArrayList<Map<String, String>>();
+        for (var settings : procResources.locales) {
+            resourcePaths.add(settings.relativeResourcePath);
+            bundleProperties.add(settings.bundleProperties);
+        }
 
-            for (var e : bundle.properties.entrySet()) {
-                String k = e.getKey();
-                String v = e.getValue();
+        var result = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(result)) {
+            out.writeObject(new ParsedModel(modelLocales(), properties, resourcePaths, bundleProperties));
+        }
+        return result.toByteArray();
+    }
+
+    // Bundles of all locales are read up front, as the cached model is looked up by their contents.
+    // They are only hashed here, so on a miss properties are still parsed by parallel tasks of locales
+    ModelKey loadBundles() throws IOException {
+        var bundles = new BundleFile[procResources.locales.size()];
+        var contentHashes = new ArrayList<String>(bundles.length);
+        for (var settings : procResources.locales) {
+            var bundle = readBundle(settings);
+            bundles[settings.localeTagValue] = bundle;
+            contentHashes.add(bundle.contentHash);
+        }
+        readBundles = bundles;
+
+        String settingsHash = BundleCache.settingsHash(procResources.naming, procResources.contentTransformer);
+        // Messages of settings without serialized form can't be looked up, so they aren't cached
+        return settingsHash != null ? new ModelKey(modelLocales(), contentHashes, settingsHash) : null;
+    }
+
+    List<String> modelLocales() {
+        var result = new ArrayList<String>();
+        for (var settings : procResources.locales) {
+            result.add(settings.locale + ":" + settings.pluralFormsCount);
+        }
+        return result;
+    }
+
+    // Messages of all locales right after parsing, without inherited ones
+    record ParsedModel(List<String> locales, TreeMap<String, Property> properties,
+                       List<String> resourcePaths, List<Map<String, String>> bundleProperties) implements Serializable {
+    }
+
+    // Other locales only read argument tables of the reference one and fill their own slots of messages,
+    // so they are parsed in parallel. Problems are reported in order of locales, as if they were parsed
+    // one after another, and the ones of later locales are suppressed
+    void parseLocaleBundles(List<LocaleSettings> locales) throws IOException {
+        if (locales.size() <= 1 || PARSER_THREADS <= 1) {
+            for (var settings : locales) {
+                parseLocaleBundle(settings);
+            }
+            return;
+        }
 
-                var parts = procResources.naming.parse(k);
-                var referenceProperty = properties.get(parts.baseKey());
-                if (referenceProperty == null) {
-                    throw settings.problem(k, "Extraneous property");
+        var futures = new ArrayList<Future<?>>(locales.size());
+        try {
+            for (var settings : locales) {
+                futures.add(PARSERS.submit(() -> {
+                    parseLocaleBundle(settings);
+                    return null;
+                }));
+            }
+
+            Throwable problem = null;
+            for (var future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (problem == null) {
+                        problem = e.getCause();
+                    } else {
+                        problem.addSuppressed(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while parsing bundles");
                 }
+            }
 
-                referenceProperty.merge(procResources, settings, parts, k, v);
+            if (problem instanceof IOException e) {
+                throw e;
+            } else if (problem instanceof RuntimeException e) {
+                throw e;
+            } else if (problem instanceof Error e) {
+                throw e;
+            }
+        } finally {
+            // Threads are shared, so bundles of an interrupted processor are just not parsed
+            for (var future : futures) {
+                future.cancel(true);
             }
+        }
+    }
 
-            checkForMissingPluralForms(settings);
-            checkForUnresolvedPropertyArgs(settings);
+    static ExecutorService parserExecutor() {
+        var count = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(PARSER_THREADS, PARSER_THREADS, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            var thread = new Thread(r, "static-bundle-parser-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    void parseLocaleBundle(LocaleSettings settings) throws IOException {
+        var bundle = bundle(settings);
+        settings.relativeResourcePath = bundle.resourcePath;
+        settings.bundleProperties = bundle.properties;
+
+        for (var e : bundle.properties.entrySet()) {
+            String k = e.getKey();
+            String v = e.getValue();
+
+            var parts = procResources.naming.parse(k);
+            var referenceProperty = properties.get(parts.baseKey());
+            if (referenceProperty == null) {
+                throw settings.problem(k, "Extraneous property");
+            }
+
+            referenceProperty.merge(procResources, settings, parts, k, v);
+        }
+    }
+
+    // Format is declared with the parameter in the reference locale and applies to all its uses
+    void resolveArgFormats() {
+        for (Property property : properties.values()) {
+            var formats = new HashMap<String, String>();
+            for (Message message : messages(property, REFERENCE_LOCALE_TAG)) {
+                for (Arg arg : message.args) {
+                    if (arg instanceof ParameterArg p && p.format != null) {
+                        formats.put(p.name, p.format);
+                    }
+                }
+            }
+            if (formats.isEmpty()) {
+                continue;
+            }
+
+            for (int localeTag = 0; localeTag < procResources.locales.size(); localeTag++) {
+                for (Message message : messages(property, localeTag)) {
+                    for (int i = 0; i < message.args.length; i++) {
+                        if (message.args[i] instanceof DefaultArg p && formats.containsKey(p.name)) {
+                            message.args[i] = new DefaultArg(p.name, formats.get(p.name));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Properties, which are absent in the bundle, share the messages of the parent locale.
+    // Equal messages are then printed once by all strategies, so there is no lookup at runtime
+    void inheritFromParent(LocaleSettings settings, boolean[] inherited) {
+        var parent = settings.parent;
+        if (parent == null || inherited[settings.localeTagValue]) {
+            return;
+        }
+        inherited[settings.localeTagValue] = true;
+        inheritFromParent(parent, inherited);
+
+        for (Property value : properties.values()) {
+            if (value instanceof OrdinalProperty p) {
+                if (p.messages[settings.localeTagValue] == null) {
+                    p.messages[settings.localeTagValue] = p.messages[parent.localeTagValue];
+                }
+            } else if (value instanceof PluralProperty p) {
+                // Forms of the parent can't be selected by the function of other locale
+                if (p.messages[settings.localeTagValue] == null &&
+                        parent.pluralFormFunction.equals(settings.pluralFormFunction)) {
+                    p.messages[settings.localeTagValue] = p.messages[parent.localeTagValue];
+                }
+            } else {
+                throw new IllegalStateException();
+            }
         }
     }
 
     public void generate() throws IOException {
         Files.createDirectories(resultPath.getParent());
 
+        if (inlinePropertyArgs) {
+            inlinePropertyArgs();
+        }
+
+        if (lookupMethods) {
+            checkForLookupConflicts();
+            keyHash = PerfectHash.build(properties.keySet());
+        }
+
+        if (pluralTableSize > 0) {
+            for (var settings : procResources.locales) {
+                if (!pluralTables.containsKey(settings.pluralFormFunction)) {
+                    pluralTables.put(settings.pluralFormFunction, PluralTable.build(settings, pluralTableSize));
+                }
+            }
+        }
+
         try (CharSink sink = new CharSink(Files.newBufferedWriter(resultPath), indent, lineWrap)) {
             if (!packageName.isEmpty()) {
                 sink.append("package ").append(packageName).append(';');
                 sink.ln(2);
             }
 
+            if (!outputs.isEmpty()) {
+                sink.append("import java.io.IOException;").ln();
+            }
+            var typeImports = typeImports();
+            for (String type : typeImports) {
+                if (type.startsWith("java.math.")) {
+                    sink.append("import ").append(type).append(';').ln();
+                }
+            }
+            if (utf8Methods) {
+                sink.append("""
+                        import java.io.OutputStream;
+                        import java.nio.ByteBuffer;
+                        """);
+            }
+            if (utf8Methods || !pluralTables.isEmpty()) {
+                sink.append("import java.nio.charset.StandardCharsets;").ln();
+            }
+            for (String type : typeImports) {
+                if (type.startsWith("java.time.")) {
+                    sink.append("import ").append(type).append(';').ln();
+                }
+            }
+            if (resourceBundles) {
+                sink.append("""
+                        import java.util.Collections;
+                        import java.util.Enumeration;
+                        import java.util.HashSet;
+                        import java.util.List;
+                        """);
+            }
             sink.append("""
                     import java.util.Locale;
-                    import java.util.Objects;
                     """);
+            if (resourceBundles) {
+                sink.append("""
+                        import java.util.MissingResourceException;
+                        import java.util.ResourceBundle;
+                        import java.util.Set;
+                        """);
+            }
+            if (hasArgFormats()) {
+                sink.append("import io.github.skykatik.staticbundle.ArgumentFormat;").ln();
+            }
             if (!className.equals("MessageSource")) {
                 sink.append("import io.github.skykatik.staticbundle.MessageSource;").ln();
             }
-            sink.ln();
-
-            sink.append("public final class ").append(className).append(" extends ");
-            if (className.equals("MessageSource")) {
-                sink.append("io.github.skykatik.staticbundle.");
+            if (lookupMethods || resourceBundles) {
+                sink.append("import io.github.skykatik.staticbundle.PerfectHash;").ln();
+            }
+            if (fractionalPlurals()) {
+                sink.append("import io.github.skykatik.staticbundle.PluralOperands;").ln();
+            }
+            if (strategy == GenerationStrategy.TABLE || lookupMethods || resourceBundles) {
+                sink.append("import io.github.skykatik.staticbundle.StringTable;").ln();
+            }
+            if (utf8Methods) {
+                sink.append("import io.github.skykatik.staticbundle.Utf8;").ln();
             }
-            sink.append("MessageSource");
-
-            sink.begin();
-
-            sink.append("public final LocaleTag localeTag;");
-            sink.ln();
-
-            sink.ln();
-            sink.append("public ").append(className).append("(LocaleTag localeTag)");
-            sink.begin();
-            sink.append("this.localeTag = Objects.requireNonNull(localeTag);");
-            sink.end();
-
             sink.ln();
-            sink.append("@Override").ln();
-            sink.append("public LocaleTag localeTag()");
-            sink.begin();
-            sink.append("return localeTag;");
-            sink.end();
-
-            generateWithLocaleTagMethod(sink);
-            generatePluralFormMethod(sink);
-
-            for (var msg : properties.values()) {
-                sink.ln();
-                sink.append("public String ").append(msg.methodName()).append('(');
 
-                if (msg instanceof OrdinalProperty p) {
-                    generateOrdinalPropertyMethod(sink, p);
-                } else if (msg instanceof PluralProperty p) {
-                    generatePluralPropertyMethod(sink, p);
-                } else {
-                    throw new IllegalStateException();
+            switch (strategy) {
+                case SWITCH -> generateSwitchClass(sink);
+                case SUBCLASS -> generateSubclassClass(sink);
+                case TABLE -> {
+                    textTable = new TextTable(properties.values(), procResources.locales.size());
+                    generateSwitchClass(sink);
                 }
             }
+        }
+    }
 
-            generateLocaleTagConstants(sink);
-
-            sink.end();
+    public String summary() {
+        String result = "Generated " + (packageName.isEmpty() ? "" : packageName + '.') + className +
+                " with " + strategy + " strategy: " + properties.size() + " properties, " +
+                procResources.locales.size() + " locales";
+        if (cachedModel) {
+            result += ", parsed bundles are taken from cache";
+        } else if (parsedLocales != procResources.locales.size()) {
+            result += ", " + parsedLocales + " changed bundles parsed";
+        }
+        if (textTable != null) {
+            result += ", " + textTable.size + " table entries per locale";
         }
+        return result;
     }
 
     // Internal methods
@@ -177,6 +608,12 @@ public class StaticBundleProcessor {
         for (Property value : properties.values()) {
             if (value instanceof PluralProperty p) {
                 var pluralForms = p.messages[settings.localeTagValue];
+                if (pluralForms == null) {
+                    throw settings.problem(p.key, settings.parent != null
+                            ? "Missing plural property, parent locale '" + settings.parent.locale +
+                            "' has other plural forms"
+                            : "Missing plural property");
+                }
                 for (int n = 0; n < pluralForms.length; n++) {
                     var pluralForm = pluralForms[n];
                     String key = procResources.naming.format(p.key, n);
@@ -205,10 +642,6 @@ public class StaticBundleProcessor {
             throw settings.problem(key, "No property '" + pa.baseKey() + "' found");
         }
 
-        if (property == p) {
-            throw settings.problem(key, "Recursive property argument");
-        }
-
         if (property instanceof PluralProperty o) {
             if (!(pa instanceof PluralPropertyArg pp)) {
                 throw settings.problem(key, "Property '" + o.key + "' is plural, but argument consider it as ordinal");
@@ -243,10 +676,214 @@ public class StaticBundleProcessor {
         }
     }
 
+    // Property arguments of each locale must form an acyclic graph, e.g. 'a -> b -> c -> a' is rejected
+    void checkForRecursivePropertyArgs(LocaleSettings settings) {
+        var visited = new HashSet<Property>();
+        var path = new ArrayList<Property>();
+        for (Property property : properties.values()) {
+            checkForRecursivePropertyArgs0(settings, property, visited, path);
+        }
+    }
+
+    void checkForRecursivePropertyArgs0(LocaleSettings settings, Property property,
+                                        Set<Property> visited, List<Property> path) {
+        int start = path.indexOf(property);
+        if (start != -1) {
+            var cycle = new StringJoiner(" -> ");
+            for (int i = start; i < path.size(); i++) {
+                cycle.add(path.get(i).key());
+            }
+            cycle.add(property.key());
+            throw settings.problem(path.get(path.size() - 1).key(), "Recursive property argument: " + cycle);
+        }
+
+        if (!visited.add(property)) {
+            return;
+        }
+
+        path.add(property);
+        for (Message message : messages(property, settings.localeTagValue)) {
+            for (Arg arg : message.args) {
+                if (arg instanceof PropertyArg pa) {
+                    checkForRecursivePropertyArgs0(settings, properties.get(pa.baseKey()), visited, path);
+                }
+            }
+        }
+        path.remove(path.size() - 1);
+    }
+
+    static Message[] messages(Property property, int localeTag) {
+        if (property instanceof OrdinalProperty p) {
+            return new Message[]{p.messages[localeTag]};
+        } else if (property instanceof PluralProperty p) {
+            return p.messages[localeTag];
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    // region inlining
+
+    // Replaces arguments of ordinal properties with their messages, so nested messages
+    // are built by a single concatenation and constant ones are folded into the literal.
+    // Referred properties are inlined first, which is possible because the graph is acyclic.
+    void inlinePropertyArgs() {
+        for (int localeTag = 0; localeTag < procResources.locales.size(); localeTag++) {
+            var inlined = new HashSet<Property>();
+            for (Property property : properties.values()) {
+                inlinePropertyArgs(property, localeTag, inlined);
+            }
+        }
+    }
+
+    void inlinePropertyArgs(Property property, int localeTag, Set<Property> inlined) {
+        if (!inlined.add(property)) {
+            return;
+        }
+
+        var types = parameterTypes(property);
+        if (property instanceof OrdinalProperty p) {
+            p.messages[localeTag] = inlinePropertyArgs(p.messages[localeTag], types, localeTag, inlined);
+        } else if (property instanceof PluralProperty p) {
+            // Forms may be shared with the parent locale, which inlines its own referred messages
+            var pluralForms = p.messages[localeTag].clone();
+            for (int i = 0; i < pluralForms.length; i++) {
+                pluralForms[i] = inlinePropertyArgs(pluralForms[i], types, localeTag, inlined);
+            }
+            p.messages[localeTag] = pluralForms;
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    Message inlinePropertyArgs(Message message, Map<String, String> types, int localeTag, Set<Property> inlined) {
+        var builder = new MessageBuilder();
+        boolean changed = false;
+        for (int i = 0; i < message.args.length; i++) {
+            if (i < message.tokens.length) {
+                builder.token(message.tokens[i]);
+            }
+
+            Arg arg = message.args[i];
+            if (arg instanceof OrdinalPropertyArg pa) {
+                var property = (OrdinalProperty) properties.get(pa.baseKey);
+                inlinePropertyArgs(property, localeTag, inlined);
+
+                if (isInlinable(property, pa, types, localeTag)) {
+                    builder.splice(property, pa, property.messages[localeTag]);
+                    changed = true;
+                    continue;
+                }
+            }
+            builder.arg(arg);
+        }
+
+        if (!changed) {
+            return message;
+        }
+
+        if (message.tokens.length > message.args.length) {
+            builder.token(message.tokens[message.tokens.length - 1]);
+        }
+        return builder.build();
+    }
+
+    // Messages with raw code are not inlined, because code can refer parameters by name,
+    // constant code can not. Arguments of different types are left as calls too, so javac still checks them
+    boolean isInlinable(OrdinalProperty property, OrdinalPropertyArg pa, Map<String, String> types, int localeTag) {
+        for (Arg arg : property.messages[localeTag].args) {
+            if (arg instanceof CodeArg c && !c.constant) {
+                return false;
+            }
+        }
+
+        var propertyTypes = parameterTypes(property);
+        for (int i = 0; i < pa.propertyArgs.length; i++) {
+            String type = propertyTypes.get(property.argTable.name(i));
+            if (type == null || !type.equals(types.get(pa.propertyArgs[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final class MessageBuilder {
+        final List<String> tokens = new ArrayList<>();
+        final List<Arg> args = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+
+        void token(String text) {
+            token.append(text);
+        }
+
+        void arg(Arg arg) {
+            tokens.add(token.toString());
+            token.setLength(0);
+            args.add(arg);
+        }
+
+        // Appends message of the property with its parameters renamed to arguments of the call
+        void splice(OrdinalProperty property, OrdinalPropertyArg pa, Message message) {
+            for (int i = 0; i < message.args.length; i++) {
+                if (i < message.tokens.length) {
+                    token(message.tokens[i]);
+                }
+
+                Arg arg = message.args[i];
+                if (arg instanceof ParameterArg p) {
+                    arg(new DefaultArg(rename(property, pa, p.name), p.format));
+                } else if (arg instanceof DefaultArg p) {
+                    arg(new DefaultArg(rename(property, pa, p.name), p.format));
+                } else if (arg instanceof PluralPropertyArg p) {
+                    var renamed = new PluralPropertyArg(p.baseKey, rename(property, pa, p.amountArg));
+                    renamed.methodName = p.methodName;
+                    arg(renamed);
+                } else if (arg instanceof OrdinalPropertyArg p) {
+                    var propertyArgs = new String[p.propertyArgs.length];
+                    for (int k = 0; k < propertyArgs.length; k++) {
+                        propertyArgs[k] = rename(property, pa, p.propertyArgs[k]);
+                    }
+                    var renamed = new OrdinalPropertyArg(p.baseKey, propertyArgs);
+                    renamed.methodName = p.methodName;
+                    arg(renamed);
+                } else if (arg instanceof CodeArg c) {
+                    // Only constant code is inlined, it doesn't refer parameters
+                    arg(c);
+                } else {
+                    throw new IllegalStateException();
+                }
+            }
+
+            if (message.tokens.length > message.args.length) {
+                token(message.tokens[message.tokens.length - 1]);
+            }
+        }
+
+        static String rename(OrdinalProperty property, OrdinalPropertyArg pa, String name) {
+            return pa.propertyArgs[property.argTable.index(name)];
+        }
+
+        // Same layout as parsed messages: there is no trailing token after the last argument
+        Message build() {
+            if (token.length() != 0) {
+                tokens.add(token.toString());
+            }
+            return new Message(args.toArray(Message.EMPTY_ARG_ARRAY), tokens.toArray(EMPTY_STRING_ARRAY));
+        }
+    }
+
+    // endregion
+
     void checkForMissingPluralForms(LocaleSettings settings) {
         for (Property value : properties.values()) {
             if (value instanceof PluralProperty p) {
                 var pluralForms = p.messages[settings.localeTagValue];
+                if (pluralForms == null) {
+                    throw settings.problem(p.key, settings.parent != null
+                            ? "Missing plural property, parent locale '" + settings.parent.locale +
+                            "' has other plural forms"
+                            : "Missing plural property");
+                }
                 for (int n = 0; n < pluralForms.length; n++) {
                     var pluralForm = pluralForms[n];
                     if (pluralForm == null) {
@@ -264,269 +901,2036 @@ public class StaticBundleProcessor {
         }
     }
 
-    void generatePluralPropertyMethod(CharSink sink, PluralProperty p) throws IOException {
-        sink.append("long amount").append(')');
+    void generateSwitchClass(CharSink sink) throws IOException {
+        sink.append("public final class ").append(className).append(" extends ");
+        appendMessageSourceType(sink);
+
+        sink.begin();
+
+        sink.append("public final LocaleTag localeTag;");
+        sink.ln();
+        if (textTable != null) {
+            sink.append("private final String[] texts;");
+            sink.ln();
+        }
+
+        if (!lazyLocales) {
+            sink.ln();
+            generateInstanceTable(sink);
+        }
+
+        if (appendMethods) {
+            sink.ln();
+            generateSizeHints(sink);
+        }
+
+        sink.ln();
+        sink.append("private ").append(className).append("(LocaleTag localeTag");
+        if (textTable != null) {
+            sink.append(", String[] texts");
+        }
+        sink.append(')');
+        sink.begin();
+        sink.append("this.localeTag = localeTag;");
+        if (textTable != null) {
+            sink.ln();
+            sink.append("this.texts = texts;");
+        }
+        sink.end();
+
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("public LocaleTag localeTag()");
+        sink.begin();
+        sink.append("return localeTag;");
+        sink.end();
+
+        generateForTagMethod(sink);
+        generateWithLocaleTagMethod(sink);
+        generatePluralFormMethod(sink);
+
+        for (var msg : properties.values()) {
+            for (String amountType : amountTypes(msg)) {
+                sink.ln();
+                sink.append("public ");
+                appendMethodSignature(sink, msg, amountType);
+
+                if (msg instanceof OrdinalProperty p) {
+                    generateOrdinalPropertyMethod(sink, p);
+                } else if (msg instanceof PluralProperty p) {
+                    generatePluralPropertyMethod(sink, p);
+                } else {
+                    throw new IllegalStateException();
+                }
+
+                for (var output : outputs) {
+                    generateOutputMethod(sink, msg, output, amountType);
+                }
+            }
+        }
+
+        if (lookupMethods) {
+            generateLookupMethods(sink);
+        }
+
+        if (utf8Methods) {
+            for (var settings : procResources.locales) {
+                generateUtf8Segments(sink, settings);
+            }
+        }
+
+        if (textTable != null) {
+            for (var settings : procResources.locales) {
+                if (lazyLocales) {
+                    generateInstanceHolder(sink, settings);
+                } else {
+                    generateTextsMethod(sink, settings);
+                }
+            }
+        }
+
+        generateConstants(sink);
+        generateArgFormats(sink);
+        generateKeyIndex(sink);
+        generateResourceBundle(sink);
+        generateCldrPluralFunctions(sink);
+        generatePluralTables(sink);
+        generateLocaleTagConstants(sink);
+
+        sink.end();
+    }
+
+    // Instance and texts of locale are only loaded on the first access to the holder
+    void generateInstanceHolder(CharSink sink, LocaleSettings settings) throws IOException {
+        sink.ln();
+        sink.append("private static final class ").append(subclassName(settings)).append("Instance");
+        sink.begin();
+
+        sink.append("static final ").append(className).append(" INSTANCE = new ").append(className);
+        sink.append("(LocaleTag.").append(settings.localeTag).append(", ");
+        sink.append(textsMethodName(settings)).append("());");
+        sink.ln();
+
+        generateTextsMethod(sink, settings);
+
+        sink.end();
+    }
+
+    void generateTextsMethod(CharSink sink, LocaleSettings settings) throws IOException {
+        sink.ln();
+        sink.append("private static String[] ").append(textsMethodName(settings)).append("()");
+        sink.begin();
+        sink.append("return StringTable.unpack(").append(Integer.toString(textTable.size));
+
+        sink.incIndent(CharSink.LINE_WRAP_INDENT);
+        for (String chunk : textTable.chunks(settings.localeTagValue)) {
+            sink.append(',');
+            sink.ln();
+            printTableChunk(sink, chunk);
+        }
+        sink.decIndent(CharSink.LINE_WRAP_INDENT);
+
+        sink.append(");");
+        sink.end();
+    }
+
+    // Chunk is printed as constant expression of literals with
+    // whole entries per line, javac folds it back to a single constant
+    void printTableChunk(CharSink sink, String chunk) throws IOException {
+        var literal = new StringBuilder();
+        int prev = 0;
+        for (int i = chunk.indexOf(TextTable.SEPARATOR); i != -1; i = chunk.indexOf(TextTable.SEPARATOR, prev)) {
+            for (int k = prev; k < i; k++) {
+                literal.append(escape(chunk.charAt(k)));
+            }
+            // Octal escape has at most three digits, so following digits are not consumed
+            literal.append("\\000");
+            prev = i + 1;
+
+            if (literal.length() >= lineWrap - 20 || prev == chunk.length()) {
+                sink.append('"').append(literal.toString()).append('"');
+                literal.setLength(0);
+                if (prev != chunk.length()) {
+                    sink.append(" +");
+                    sink.ln();
+                }
+            }
+        }
+    }
+
+    void generateSubclassClass(CharSink sink) throws IOException {
+        // Permitted subclasses are nested, so the permits clause can be omitted
+        sink.append("public abstract sealed class ").append(className).append(" extends ");
+        appendMessageSourceType(sink);
+
+        sink.begin();
+
+        if (!lazyLocales) {
+            generateInstanceTable(sink);
+            sink.ln();
+        }
+
+        if (appendMethods) {
+            generateSizeHints(sink);
+            sink.ln();
+        }
+
+        sink.append("@Override").ln();
+        sink.append("public abstract LocaleTag localeTag();");
+        sink.ln();
+
+        if (fractionalPlurals()) {
+            sink.ln();
+            sink.append("public abstract int pluralForm(double value);").ln();
+            sink.ln();
+            sink.append("public abstract int pluralForm(BigDecimal value);").ln();
+        }
+
+        generateForTagMethod(sink);
+        generateWithLocaleTagMethod(sink);
+
+        // Methods, which have the same code in all locales, are implemented once here
+        var reference = procResources.locales.get(REFERENCE_LOCALE_TAG);
+        var shared = new HashSet<String>();
+        for (var msg : properties.values()) {
+            boolean sharedMethod = groupArms((s, settings) -> printSubclassMethodBody(s, msg, settings)).size() == 1;
+            if (sharedMethod) {
+                shared.add(msg.methodName());
+            }
+            for (String amountType : amountTypes(msg)) {
+                sink.ln();
+                if (sharedMethod) {
+                    sink.append("public ");
+                    appendMethodSignature(sink, msg, amountType);
+                    sink.begin();
+                    printSubclassMethodBody(sink, msg, reference);
+                    sink.end();
+                } else {
+                    sink.append("public abstract ");
+                    appendMethodSignature(sink, msg, amountType);
+                    sink.append(';');
+                    sink.ln();
+                }
+            }
+
+            for (var output : outputs) {
+                boolean sharedOutput = groupArms((s, settings) ->
+                        printSubclassOutputBody(s, msg, settings, output)).size() == 1;
+                if (sharedOutput) {
+                    shared.add(output.methodName(msg.methodName()));
+                }
+                for (String amountType : amountTypes(msg)) {
+                    sink.ln();
+                    if (sharedOutput) {
+                        sink.append("public ");
+                        appendOutputMethodSignature(sink, msg, output, amountType);
+                        sink.begin();
+                        printSubclassOutputBody(sink, msg, reference, output);
+                        sink.end();
+                    } else {
+                        sink.append("public abstract ");
+                        appendOutputMethodSignature(sink, msg, output, amountType);
+                        sink.append(';');
+                        sink.ln();
+                    }
+                }
+            }
+        }
+
+        if (lookupMethods) {
+            generateLookupMethods(sink);
+        }
+
+        for (var settings : procResources.locales) {
+            generateLocaleSubclass(sink, settings, shared);
+        }
+
+        if (utf8Methods) {
+            for (var settings : procResources.locales) {
+                generateUtf8Segments(sink, settings);
+            }
+        }
+
+        generateConstants(sink);
+        generateArgFormats(sink);
+        generateKeyIndex(sink);
+        generateResourceBundle(sink);
+        generateCldrPluralFunctions(sink);
+        generatePluralTables(sink);
+        generateLocaleTagConstants(sink);
+
+        sink.end();
+    }
+
+    // Locale subclass, which is extended by the subclass of given locale, or null when it extends the base class.
+    // Parent subclass is only reused when it selects plural forms in the same way
+    static LocaleSettings superclassLocale(LocaleSettings settings) {
+        var parent = settings.parent;
+        return parent != null && parent.pluralFormFunction.equals(settings.pluralFormFunction) ? parent : null;
+    }
+
+    void generateLocaleSubclass(CharSink sink, LocaleSettings settings, Set<String> shared) throws IOException {
+        boolean extended = false;
+        for (var other : procResources.locales) {
+            extended |= superclassLocale(other) == settings;
+        }
+        var superclass = superclassLocale(settings);
+        var inherited = new HashSet<>(shared);
+
+        // Subclasses of sealed parent locales are nested in the same file, so permits clause can be omitted
+        sink.ln();
+        sink.append(extended ? "private static sealed class " : "private static final class ");
+        sink.append(subclassName(settings));
+        sink.append(" extends ").append(superclass != null ? subclassName(superclass) : className);
+        sink.begin();
+
+        if (lazyLocales) {
+            // Field has the type of base class, so verification of forTag doesn't load all subclasses
+            sink.append("static final ").append(className).append(" INSTANCE = new ");
+            sink.append(subclassName(settings)).append("();");
+            sink.ln(2);
+        }
+
+        sink.append("@Override").ln();
+        sink.append("public LocaleTag localeTag()");
+        sink.begin();
+        sink.append("return LocaleTag.").append(settings.localeTag).append(';');
+        sink.end();
+
+        if (superclass == null) {
+            sink.ln();
+            sink.append("@Override").ln();
+            sink.append("public int pluralForm(long value)");
+            sink.begin();
+            sink.append("return ").append(pluralFormExpression(settings)).append(';');
+            sink.end();
+
+            if (fractionalPlurals()) {
+                generateFractionalPluralFormMethod(sink, "double", List.of(settings), true);
+                generateFractionalPluralFormMethod(sink, "BigDecimal", List.of(settings), true);
+            }
+        }
+
+        for (var msg : properties.values()) {
+            // Methods without an override of the message are inherited from the parent locale
+            if (superclass != null) {
+                ArmPrinter printer = (s, localeSettings) -> printSubclassMethodBody(s, msg, localeSettings);
+                if (render(printer, settings).equals(render(printer, superclass))) {
+                    inherited.add(msg.methodName());
+                }
+                for (var output : outputs) {
+                    printer = (s, localeSettings) -> printSubclassOutputBody(s, msg, localeSettings, output);
+                    if (render(printer, settings).equals(render(printer, superclass))) {
+                        inherited.add(output.methodName(msg.methodName()));
+                    }
+                }
+            }
+
+            for (String amountType : amountTypes(msg)) {
+                if (!inherited.contains(msg.methodName())) {
+                    sink.ln();
+                    sink.append("@Override").ln();
+                    sink.append("public ");
+                    appendMethodSignature(sink, msg, amountType);
+                    sink.begin();
+                    printSubclassMethodBody(sink, msg, settings);
+                    sink.end();
+                }
+
+                for (var output : outputs) {
+                    if (!inherited.contains(output.methodName(msg.methodName()))) {
+                        generateLocaleOutputMethod(sink, settings, msg, output, amountType);
+                    }
+                }
+            }
+        }
+
+        sink.end();
+    }
+
+    void printSubclassMethodBody(CharSink sink, Property property, LocaleSettings settings) throws IOException {
+        if (property instanceof OrdinalProperty p) {
+            sink.append("return ");
+            printMessage(sink, p.messages[settings.localeTagValue], sizeHint(p));
+            sink.append(';');
+        } else if (property instanceof PluralProperty p) {
+            sink.append("return ");
+            printPluralFormSwitch(sink, p.messages[settings.localeTagValue], "pluralForm(amount)", sizeHint(p));
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    void printSubclassOutputBody(CharSink sink, Property property,
+                                 LocaleSettings settings, Output output) throws IOException {
+        printOutputBody(sink, property, settings, output, "pluralForm(amount)");
+        sink.append("return out;");
+    }
+
+    void generateLocaleOutputMethod(CharSink sink, LocaleSettings settings, Property property,
+                                    Output output, String amountType) throws IOException {
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("public ");
+        appendOutputMethodSignature(sink, property, output, amountType);
+        sink.begin();
+        printSubclassOutputBody(sink, property, settings, output);
+        sink.end();
+    }
+
+    void appendMessageSourceType(CharSink sink) throws IOException {
+        if (className.equals("MessageSource")) {
+            sink.append("io.github.skykatik.staticbundle.");
+        }
+        sink.append("MessageSource");
+    }
+
+    void appendMethodSignature(CharSink sink, Property property, String amountType) throws IOException {
+        sink.append("String ").append(property.methodName()).append('(');
+        appendParameters(sink, property, amountType);
+        sink.append(')');
+    }
+
+    void appendOutputMethodSignature(CharSink sink, Property property,
+                                     Output output, String amountType) throws IOException {
+        sink.append(output.type).append(' ').append(output.methodName(property.methodName()));
+        sink.append('(').append(output.type).append(" out");
+        if (property instanceof PluralProperty || !parameters((OrdinalProperty) property).isEmpty()) {
+            sink.append(", ");
+        }
+        appendParameters(sink, property, amountType);
+        sink.append(')');
+
+        if (output.throwsIOException) {
+            sink.append(" throws IOException");
+        }
+    }
+
+    void appendParameters(CharSink sink, Property property, String amountType) throws IOException {
+        if (property instanceof OrdinalProperty p) {
+            var parameters = parameters(p);
+            for (int i = 0; i < parameters.size(); i++) {
+                var parameterArg = parameters.get(i);
+                sink.append(parameterArg.type).append(" ").append(parameterArg.name);
+
+                if (i != parameters.size() - 1) {
+                    sink.append(", ");
+                }
+            }
+        } else if (property instanceof PluralProperty) {
+            sink.append(amountType).append(" amount");
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    Map<String, String> parameterTypes(Property property) {
+        if (property instanceof OrdinalProperty p) {
+            var types = new HashMap<String, String>();
+            for (var parameter : parameters(p)) {
+                types.put(parameter.name, parameter.type);
+            }
+            return types;
+        } else if (property instanceof PluralProperty) {
+            return Map.of("amount", "long");
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    List<ParameterArg> parameters(OrdinalProperty p) {
+        var referenceMessage = p.messages[REFERENCE_LOCALE_TAG];
+        return Arrays.stream(referenceMessage.args)
+                .<ParameterArg>mapMulti((arg, consumer) -> {
+                    if (arg instanceof ParameterArg pa) {
+                        consumer.accept(pa);
+                    }
+                })
+                .sorted(Comparator.comparingInt(c -> c.pos))
+                .toList();
+    }
+
+    void generatePluralPropertyMethod(CharSink sink, PluralProperty p) throws IOException {
+        sink.begin();
+
+        sink.append("int index = pluralForm(amount);");
+        sink.ln();
+
+        int sizeHint = sizeHint(p);
+        var arms = groupArms((s, settings) ->
+                printPluralFormSwitch(s, p.messages[settings.localeTagValue], "index", sizeHint));
+        if (arms.size() == 1) {
+            sink.append("return ");
+            printPluralFormSwitch(sink, p.messages[REFERENCE_LOCALE_TAG], "index", sizeHint);
+            sink.end();
+            return;
+        }
+
+        sink.append("return switch (localeTag)");
+        sink.begin();
+
+        for (var arm : arms) {
+            printCaseLabel(sink, arm);
+            sink.append(" -> ");
+            printPluralFormSwitch(sink, p.messages[arm.get(0).localeTagValue], "index", sizeHint);
+        }
+
+        sink.endsc();
+
+        sink.end();
+    }
+
+    void printPluralFormSwitch(CharSink sink, Message[] pluralForms, String selector, int sizeHint) throws IOException {
+        sink.append("switch (").append(selector).append(')');
+        sink.begin();
+
+        for (int pluralForm = 0; pluralForm < pluralForms.length; pluralForm++) {
+            var message = pluralForms[pluralForm];
+
+            sink.append("case ").append(Integer.toString(pluralForm)).append(" -> ");
+            printMessage(sink, message, sizeHint);
+
+            sink.append(';');
+            sink.ln();
+        }
+
+        sink.append("default -> throw new IllegalStateException();");
+        sink.endsc();
+    }
+
+    void generateOrdinalPropertyMethod(CharSink sink, OrdinalProperty p) throws IOException {
+        sink.begin();
+
+        int sizeHint = sizeHint(p);
+        var arms = groupArms((s, settings) -> printMessage(s, p.messages[settings.localeTagValue], sizeHint));
+        if (arms.size() == 1) {
+            sink.append("return ");
+            printMessage(sink, p.messages[REFERENCE_LOCALE_TAG], sizeHint);
+            sink.append(';');
+            sink.end();
+            return;
+        }
+
+        sink.append("return switch (localeTag)");
+        sink.begin();
+
+        for (var arm : arms) {
+            printCaseLabel(sink, arm);
+            sink.append(" -> ");
+            printMessage(sink, p.messages[arm.get(0).localeTagValue], sizeHint);
+
+            sink.append(';');
+            sink.ln();
+        }
+
+        sink.endsc();
+        sink.end();
+    }
+
+    interface ArmPrinter {
+        void print(CharSink sink, LocaleSettings settings) throws IOException;
+    }
+
+    // Groups locales, which have the same code, so it is generated once for all of them.
+    // Often the case for regional locales and for table texts, when locales differ only in constant parts
+    List<List<LocaleSettings>> groupArms(ArmPrinter printer) throws IOException {
+        var arms = new LinkedHashMap<String, List<LocaleSettings>>();
+        for (var settings : procResources.locales) {
+            arms.computeIfAbsent(render(printer, settings), k -> new ArrayList<>()).add(settings);
+        }
+        return new ArrayList<>(arms.values());
+    }
+
+    static String render(ArmPrinter printer, LocaleSettings settings) throws IOException {
+        var out = new StringWriter();
+        printer.print(new CharSink(out), settings);
+        return out.toString();
+    }
+
+    static void printCaseLabel(CharSink sink, List<LocaleSettings> arm) throws IOException {
+        sink.append("case ");
+        for (int i = 0; i < arm.size(); i++) {
+            if (i != 0) {
+                sink.append(", ");
+            }
+            sink.append(arm.get(i).localeTag);
+        }
+    }
+
+    void generateLocaleTagConstants(CharSink sink) throws IOException {
+        sink.ln();
+        sink.append("public enum LocaleTag implements io.github.skykatik.staticbundle.LocaleTag");
+        sink.begin();
+
+        for (int i = 0; i < procResources.locales.size(); i++) {
+            var settings = procResources.locales.get(i);
+
+            sink.append(settings.localeTag);
+            sink.append('(');
+            sink.append(constructLocale(settings.locale));
+            sink.append(')');
+
+            if (i != procResources.locales.size() - 1) {
+                sink.append(',');
+                sink.ln();
+            }
+        }
+
+        sink.append(';');
+        sink.ln(2);
+
+        sink.append("public final Locale locale;");
+        sink.ln(2);
+
+        sink.append("LocaleTag(Locale locale)");
+        sink.begin();
+        sink.append("this.locale = locale;");
+        sink.end();
+
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("public Locale locale()");
+        sink.begin();
+        sink.append("return locale;");
+        sink.end();
+
+        sink.ln();
+        sink.append("public static LocaleTag of(String localeString)");
+        sink.begin();
+        sink.append("return switch (localeString)");
+        sink.begin();
+
+        for (int i = 0; i < procResources.locales.size(); i++) {
+            var settings = procResources.locales.get(i);
+            sink.append("case ").append(makeLiteral(settings.locale.toString())).append(" -> ");
+            sink.append(settings.localeTag);
+            sink.append(";\n");
+        }
+        sink.append("default -> null;");
+        sink.endsc();
+        sink.end();
+
+        generateResolveMethods(sink);
+
+        sink.end();
+    }
+
+    void generateResolveMethods(CharSink sink) throws IOException {
+        var fallback = procResources.locales.get(REFERENCE_LOCALE_TAG);
+        var table = new LinkedHashMap<String, LocaleSettings>();
+        for (var settings : procResources.locales) {
+            if (settings.locale.equals(Locale.ROOT)) {
+                fallback = settings;
+            } else {
+                table.put(matchTag(settings.locale), settings);
+            }
+        }
+        // Requests of a language without region are matched by the first declared regional locale
+        for (var settings : List.copyOf(table.values())) {
+            String tag = matchTag(settings.locale);
+            for (int dash = tag.lastIndexOf('-'); dash != -1; dash = tag.lastIndexOf('-', dash - 1)) {
+                table.putIfAbsent(tag.substring(0, dash), settings);
+            }
+        }
+
+        sink.ln();
+        sink.append("public static LocaleTag resolve(Locale locale)");
+        sink.begin();
+        sink.append("return Matcher.INSTANCE.match(locale);");
+        sink.end();
+
+        sink.ln();
+        sink.append("public static LocaleTag resolve(CharSequence acceptLanguage)");
+        sink.begin();
+        sink.append("return Matcher.INSTANCE.match(acceptLanguage);");
+        sink.end();
+
+        sink.ln();
+        sink.append("private static final class Matcher");
+        sink.begin();
+
+        sink.append("static final String[] TAGS =");
+        sink.begin();
+        int i = 0;
+        for (String tag : table.keySet()) {
+            sink.append(makeLiteral(tag));
+            if (++i != table.size()) {
+                sink.append(',');
+                sink.ln();
+            }
+        }
+        sink.endsc();
+        sink.ln();
+
+        sink.append("static final LocaleTag[] LOCALES =");
+        sink.begin();
+        i = 0;
+        for (var settings : table.values()) {
+            sink.append(settings.localeTag);
+            if (++i != table.size()) {
+                sink.append(',');
+                sink.ln();
+            }
+        }
+        sink.endsc();
+        sink.ln();
+
+        sink.append("static final io.github.skykatik.staticbundle.LocaleMatcher<LocaleTag> INSTANCE =").lb();
+        sink.append("new io.github.skykatik.staticbundle.LocaleMatcher<>(").append(fallback.localeTag);
+        sink.append(", TAGS, LOCALES);");
+        sink.end();
+    }
+
+    // Lowercase subtags of the locale separated by '-', as they are matched by LocaleMatcher
+    static String matchTag(Locale locale) {
+        var tag = new StringBuilder(locale.getLanguage());
+        for (String subtag : new String[]{locale.getScript(), locale.getCountry(), locale.getVariant()}) {
+            if (!subtag.isEmpty()) {
+                tag.append('-').append(subtag.replace('_', '-'));
+            }
+        }
+        return tag.toString().toLowerCase(Locale.ROOT);
+    }
+
+    void generatePluralFormMethod(CharSink sink) throws IOException {
+        sink.ln();
+
+        sink.append("@Override").ln();
+        sink.append("public int pluralForm(long value)");
+        sink.begin();
+
+        var arms = groupArms((s, settings) -> s.append(pluralFormExpression(settings)));
+        if (arms.size() == 1) {
+            sink.append("return ").append(pluralFormExpression(arms.get(0).get(0))).append(';');
+        } else {
+            sink.append("return switch (localeTag)");
+            sink.begin();
+            for (var arm : arms) {
+                printCaseLabel(sink, arm);
+                sink.append(" -> ").append(pluralFormExpression(arm.get(0))).append(';');
+                sink.ln();
+            }
+            sink.endsc();
+        }
+
+        sink.end();
+
+        if (fractionalPlurals()) {
+            generateFractionalPluralFormMethod(sink, "double", procResources.locales, false);
+            generateFractionalPluralFormMethod(sink, "BigDecimal", procResources.locales, false);
+        }
+    }
+
+    // Fractional amounts have plural forms only when all locales select them by CLDR rules,
+    // otherwise neither pluralForm nor plural accessors have overloads of them, and calls don't compile
+    boolean fractionalPlurals() {
+        for (var settings : procResources.locales) {
+            if (settings.cldrRules == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Types of amounts, which plural accessors and their output methods are overloaded for
+    List<String> amountTypes(Property property) {
+        return property instanceof PluralProperty && fractionalPlurals()
+                ? List.of("long", "double", "BigDecimal")
+                : List.of("long");
+    }
+
+    void generateFractionalPluralFormMethod(CharSink sink, String type, List<LocaleSettings> locales,
+                                            boolean override) throws IOException {
+        sink.ln();
+        if (override) {
+            sink.append("@Override").ln();
+        }
+        sink.append("public int pluralForm(").append(type).append(" value)");
+        sink.begin();
+
+        sink.append("int v = PluralOperands.visibleFractionDigits(value);").ln();
+        sink.append("long i = PluralOperands.integerDigits(value);").ln();
+        sink.append("long f = PluralOperands.fractionDigits(value, v);").ln();
+
+        var arms = new LinkedHashMap<String, List<LocaleSettings>>();
+        for (var settings : locales) {
+            arms.computeIfAbsent(fractionalPluralFormExpression(settings), k -> new ArrayList<>()).add(settings);
+        }
+
+        if (arms.size() == 1) {
+            sink.append("return ").append(fractionalPluralFormExpression(locales.get(0))).append(';');
+        } else {
+            sink.append("return switch (localeTag)");
+            sink.begin();
+            for (var arm : arms.entrySet()) {
+                printCaseLabel(sink, arm.getValue());
+                sink.append(" -> ").append(arm.getKey()).append(';');
+                sink.ln();
+            }
+            sink.endsc();
+        }
+
+        sink.end();
+    }
+
+    static String fractionalPluralFormExpression(LocaleSettings settings) {
+        String function = settings.pluralFormFunction;
+        return function.substring(0, function.indexOf('(')) + "(i, v, f)";
+    }
+
+    void generateCldrPluralFunctions(CharSink sink) throws IOException {
+        var generated = new HashSet<String>();
+        for (var settings : procResources.locales) {
+            if (settings.cldrRules == null || !generated.add(settings.pluralFormFunction)) {
+                continue;
+            }
+
+            String name = settings.pluralFormFunction.substring(0, settings.pluralFormFunction.indexOf('('));
+
+            sink.ln();
+            if (!settings.cldrRules.source.isEmpty()) {
+                sink.append("// ").append(settings.cldrRules.source).ln();
+            }
+            sink.append("private static int ").append(name).append("(long value)");
+            sink.begin();
+            settings.cldrRules.generateIntegerBody(sink);
+            sink.end();
+
+            if (fractionalPlurals()) {
+                sink.ln();
+                sink.append("private static int ").append(name).append("(long i, int v, long f)");
+                sink.begin();
+                settings.cldrRules.generateBody(sink);
+                sink.end();
+            }
+        }
+    }
+
+    String pluralFormExpression(LocaleSettings settings) {
+        var table = pluralTables.get(settings.pluralFormFunction);
+        if (table == null) {
+            return settings.pluralFormFunction;
+        }
+        return "value >= 0 && value < " + pluralTableSize + " ? PluralForms." + table.fieldName +
+                "[(int) value] : " + settings.pluralFormFunction;
+    }
+
+    // Tables are in the holder class, so they are loaded on the first plural form lookup
+    void generatePluralTables(CharSink sink) throws IOException {
+        if (pluralTables.isEmpty()) {
+            return;
+        }
+
+        sink.ln();
+        sink.append("private static final class PluralForms");
+        sink.begin();
+
+        for (var table : pluralTables.values()) {
+            sink.append("static final byte[] ").append(table.fieldName).append(" = (");
+
+            String literal = table.literal();
+            sink.incIndent(CharSink.LINE_WRAP_INDENT);
+            for (int i = 0; i < literal.length(); ) {
+                int end = Math.min(literal.length(), i + lineWrap - 20);
+                // Do not break escape sequence
+                while (end < literal.length() && literal.charAt(end) != '\\') {
+                    end++;
+                }
+
+                sink.ln();
+                sink.append('"').append(literal.substring(i, end)).append('"');
+                if (end != literal.length()) {
+                    sink.append(" +");
+                }
+                i = end;
+            }
+            sink.decIndent(CharSink.LINE_WRAP_INDENT);
+
+            sink.append(").getBytes(StandardCharsets.ISO_8859_1);");
+            sink.ln();
+        }
+
+        sink.end();
+    }
+
+    void generateInstanceTable(CharSink sink) throws IOException {
+        sink.append("private static final ").append(className).append("[] INSTANCES =");
+        sink.begin();
+
+        for (int i = 0; i < procResources.locales.size(); i++) {
+            var settings = procResources.locales.get(i);
+
+            sink.append("new ");
+            switch (strategy) {
+                case SWITCH -> sink.append(className).append("(LocaleTag.").append(settings.localeTag).append(')');
+                case TABLE -> sink.append(className).append("(LocaleTag.").append(settings.localeTag)
+                        .append(", ").append(textsMethodName(settings)).append("())");
+                case SUBCLASS -> sink.append(subclassName(settings)).append("()");
+            }
+
+            if (i != procResources.locales.size() - 1) {
+                sink.append(',');
+                sink.ln();
+            }
+        }
+
+        sink.endsc();
+    }
+
+    void generateForTagMethod(CharSink sink) throws IOException {
+        sink.ln();
+
+        sink.append("public static ").append(className).append(" forTag(LocaleTag localeTag)");
+        sink.begin();
+        if (lazyLocales) {
+            // Class initialization of holder is lazy and thread-safe without explicit locking
+            sink.append("return switch (localeTag)");
+            sink.begin();
+            for (var settings : procResources.locales) {
+                sink.append("case ").append(settings.localeTag).append(" -> ");
+                sink.append(subclassName(settings));
+                if (strategy == GenerationStrategy.TABLE) {
+                    sink.append("Instance");
+                }
+                sink.append(".INSTANCE;");
+                sink.ln();
+            }
+            sink.endsc();
+        } else {
+            sink.append("return INSTANCES[localeTag.ordinal()];");
+        }
+        sink.end();
+    }
+
+    void generateWithLocaleTagMethod(CharSink sink) throws IOException {
+        sink.ln();
+
+        sink.append("public ").append(className).append(" withLocaleTag(LocaleTag localeTag)");
         sink.begin();
+        sink.append("return forTag(localeTag);");
+        sink.end();
+    }
+
+    void generateOutputMethod(CharSink sink, Property property, Output output, String amountType) throws IOException {
+        sink.ln();
+        sink.append("public ");
+        appendOutputMethodSignature(sink, property, output, amountType);
+        sink.begin();
+
+        if (property instanceof PluralProperty) {
+            sink.append("int index = pluralForm(amount);");
+            sink.ln();
+        }
+
+        var arms = groupArms((s, settings) -> printOutputBody(s, property, settings, output, "index"));
+        if (arms.size() == 1) {
+            printOutputBody(sink, property, procResources.locales.get(REFERENCE_LOCALE_TAG), output, "index");
+        } else {
+            sink.append("switch (localeTag)");
+            sink.begin();
+
+            for (var arm : arms) {
+                var settings = arm.get(0);
+                printCaseLabel(sink, arm);
+                sink.append(" ->");
+                if (property instanceof OrdinalProperty p
+                        && statementCount(p.messages[settings.localeTagValue], output) == 1) {
+                    sink.append(' ');
+                    printOutputBody(sink, property, settings, output, "index");
+                } else {
+                    sink.begin();
+                    printOutputBody(sink, property, settings, output, "index");
+                    sink.end();
+                }
+            }
+
+            sink.end();
+        }
+
+        sink.append("return out;");
+        sink.end();
+    }
+
+    void printOutputBody(CharSink sink, Property property, LocaleSettings settings,
+                         Output output, String selector) throws IOException {
+        var types = parameterTypes(property);
+        if (property instanceof OrdinalProperty p) {
+            String segmentPrefix = utf8SegmentPrefix(property, settings.localeTagValue, 0);
+            printOutputStatements(sink, p.messages[settings.localeTagValue], types, output, segmentPrefix);
+        } else if (property instanceof PluralProperty p) {
+            var pluralForms = p.messages[settings.localeTagValue];
+
+            sink.append("switch (").append(selector).append(')');
+            sink.begin();
+
+            for (int pluralForm = 0; pluralForm < pluralForms.length; pluralForm++) {
+                var message = pluralForms[pluralForm];
+
+                String formSegmentPrefix = utf8SegmentPrefix(property, settings.localeTagValue, pluralForm);
+
+                sink.append("case ").append(Integer.toString(pluralForm)).append(" ->");
+                if (statementCount(message, output) == 1) {
+                    sink.append(' ');
+                    printOutputStatements(sink, message, types, output, formSegmentPrefix);
+                } else {
+                    sink.begin();
+                    printOutputStatements(sink, message, types, output, formSegmentPrefix);
+                    sink.end();
+                }
+            }
+
+            sink.append("default -> throw new IllegalStateException();");
+            sink.end();
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    static int statementCount(Message message, Output output) {
+        if (output.isUtf8()) {
+            int count = message.args.length;
+            for (String token : message.tokens) {
+                if (!token.isEmpty()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        int count = 0;
+        boolean chain = false;
+        for (int i = 0, k = 0; i < message.tokens.length; i++) {
+            if (!message.tokens[i].isEmpty() && !chain) {
+                chain = true;
+                count++;
+            }
+
+            if (k < message.args.length) {
+                Arg arg = message.args[k++];
+                // Property calls and formatted arguments are separate statements, see printAppendStatements()
+                if (arg instanceof PropertyArg || argFormat(arg) != null) {
+                    chain = false;
+                    count++;
+                } else if (!chain) {
+                    chain = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    void printOutputStatements(CharSink sink, Message message, Map<String, String> types,
+                               Output output, String segmentPrefix) throws IOException {
+        if (output.isUtf8()) {
+            printUtf8Statements(sink, message, output, segmentPrefix);
+        } else {
+            printAppendStatements(sink, message, types, output);
+        }
+    }
+
+    void printUtf8Statements(CharSink sink, Message message, Output output, String segmentPrefix) throws IOException {
+        String put = output == Output.BYTE_BUFFER ? "out.put(" : "out.write(";
+        for (int i = 0, k = 0; i < message.tokens.length; i++) {
+            if (!message.tokens[i].isEmpty()) {
+                sink.append(put).append(segmentPrefix).append('_').append(Integer.toString(i)).append(");");
+                sink.ln();
+            }
+
+            if (k < message.args.length) {
+                Arg arg = message.args[k++];
+
+                if (arg instanceof OrdinalPropertyArg p) {
+                    sink.append(output.methodName(p.methodName)).append("(out");
+                    for (String propertyArg : p.propertyArgs) {
+                        sink.append(", ").append(propertyArg);
+                    }
+                    sink.append(");");
+                } else if (arg instanceof PluralPropertyArg p) {
+                    sink.append(output.methodName(p.methodName)).append("(out, ");
+                    sink.append(p.amountArg).append(");");
+                } else {
+                    // Overloads of Utf8.write follow string conversion of the argument type
+                    sink.append("Utf8.write(out, ");
+                    if (arg instanceof CodeArg c) {
+                        sink.append(c.constant ? constantExpression(c) : c.code);
+                    } else if (arg instanceof DefaultArg p) {
+                        printArgValue(sink, p.name, p.format);
+                    } else if (arg instanceof ParameterArg p) {
+                        printArgValue(sink, p.name, p.format);
+                    } else {
+                        throw new IllegalStateException();
+                    }
+                    sink.append(");");
+                }
+                sink.ln();
+            }
+        }
+    }
+
+    void generateUtf8Segments(CharSink sink, LocaleSettings settings) throws IOException {
+        int localeTag = settings.localeTagValue;
+        if (!ownsUtf8Segments(localeTag)) {
+            return;
+        }
 
-        sink.append("int index = pluralForm(amount);");
         sink.ln();
+        sink.append("private static final class ").append(utf8SegmentsName(settings));
+        sink.begin();
 
-        if (procResources.isSingle()) {
-            sink.append("return ");
+        for (var property : properties.values()) {
+            String prefix = upperSnakeCase(property.methodName());
+            if (property instanceof OrdinalProperty p) {
+                if (utf8SegmentsOwner(property, localeTag, 0) == localeTag) {
+                    generateUtf8Segments(sink, p.messages[localeTag], prefix);
+                }
+            } else if (property instanceof PluralProperty p) {
+                var pluralForms = p.messages[localeTag];
+                for (int pluralForm = 0; pluralForm < pluralForms.length; pluralForm++) {
+                    if (utf8SegmentsOwner(property, localeTag, pluralForm) == localeTag) {
+                        generateUtf8Segments(sink, pluralForms[pluralForm], prefix + '_' + pluralForm);
+                    }
+                }
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        sink.end();
+    }
+
+    // Whether the locale has any text, which is not shared with preceding locales
+    boolean ownsUtf8Segments(int localeTag) {
+        for (var property : properties.values()) {
+            var messages = messages(property, localeTag);
+            for (int i = 0; i < messages.length; i++) {
+                if (utf8SegmentsOwner(property, localeTag, i) == localeTag && hasText(messages[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean hasText(Message message) {
+        for (String token : message.tokens) {
+            if (!token.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Segments of equal texts are generated once, by the first locale which has them
+    int utf8SegmentsOwner(Property property, int localeTag, int pluralForm) {
+        var tokens = messages(property, localeTag)[pluralForm].tokens;
+        for (int owner = 0; owner < localeTag; owner++) {
+            var messages = messages(property, owner);
+            if (pluralForm < messages.length && Arrays.equals(messages[pluralForm].tokens, tokens)) {
+                return owner;
+            }
+        }
+        return localeTag;
+    }
+
+    String utf8SegmentPrefix(Property property, int localeTag, int pluralForm) {
+        var owner = procResources.locales.get(utf8SegmentsOwner(property, localeTag, pluralForm));
+        String prefix = utf8SegmentsName(owner) + '.' + upperSnakeCase(property.methodName());
+        return property instanceof PluralProperty ? prefix + '_' + pluralForm : prefix;
+    }
+
+    void generateUtf8Segments(CharSink sink, Message message, String prefix) throws IOException {
+        for (int i = 0; i < message.tokens.length; i++) {
+            String token = message.tokens[i];
+            if (token.isEmpty()) {
+                continue;
+            }
+
+            sink.append("static final byte[] ").append(prefix).append('_').append(Integer.toString(i));
+            sink.append(" = ").append(makeLiteral(token)).append(".getBytes(StandardCharsets.UTF_8);");
+            sink.ln();
+        }
+    }
+
+    void printAppendStatements(CharSink sink, Message message,
+                               Map<String, String> types, Output output) throws IOException {
+        boolean appendable = output == Output.APPENDABLE;
+        boolean chain = false;
+        for (int i = 0, k = 0; i < message.tokens.length; i++) {
+            String token = message.tokens[i];
+            if (!token.isEmpty()) {
+                if (!chain) {
+                    sink.append("out");
+                    chain = true;
+                }
+                sink.append(".append(");
+                if (textTable != null) {
+                    sink.append(tokenExpression(message, i));
+                } else {
+                    sink.append(token.length() == 1 ? makeCharLiteral(token.charAt(0)) : makeLiteral(token));
+                }
+                sink.append(')');
+            }
+
+            if (k < message.args.length) {
+                Arg arg = message.args[k++];
+
+                if (arg instanceof PropertyArg) {
+                    if (chain) {
+                        sink.append(';');
+                        sink.ln();
+                        chain = false;
+                    }
+
+                    if (arg instanceof OrdinalPropertyArg p) {
+                        sink.append(output.methodName(p.methodName)).append("(out");
+                        for (String propertyArg : p.propertyArgs) {
+                            sink.append(", ").append(propertyArg);
+                        }
+                        sink.append(");");
+                    } else if (arg instanceof PluralPropertyArg p) {
+                        sink.append(output.methodName(p.methodName)).append("(out, ");
+                        sink.append(p.amountArg).append(");");
+                    }
+                    sink.ln();
+                    continue;
+                }
+
+                String format = argFormat(arg);
+                if (format != null) {
+                    if (chain) {
+                        sink.append(';');
+                        sink.ln();
+                        chain = false;
+                    }
+
+                    sink.append(argFormatExpression(format)).append(".formatTo(out, ");
+                    sink.append(((NamedArg) arg).name()).append(");");
+                    sink.ln();
+                    continue;
+                }
+
+                if (!chain) {
+                    sink.append("out");
+                    chain = true;
+                }
+
+                sink.append(".append(");
+                if (arg instanceof CodeArg c && c.constant) {
+                    sink.append(constantExpression(c));
+                } else if (arg instanceof CodeArg c) {
+                    if (appendable) {
+                        sink.append("String.valueOf(").append(c.code).append(')');
+                    } else {
+                        sink.append(c.code);
+                    }
+                } else if (arg instanceof DefaultArg p) {
+                    appendArgValue(sink, p.name, types.get(p.name), appendable);
+                } else if (arg instanceof ParameterArg p) {
+                    appendArgValue(sink, p.name, p.type, appendable);
+                } else {
+                    throw new IllegalStateException();
+                }
+                sink.append(')');
+            }
+        }
+
+        if (chain) {
+            sink.append(';');
+            sink.ln();
+        }
+    }
+
+    void appendArgValue(CharSink sink, String name, String type, boolean appendable) throws IOException {
+        // Appendable accepts only chars and char sequences
+        if (appendable && !"String".equals(type) && !"CharSequence".equals(type)) {
+            sink.append("String.valueOf(").append(name).append(')');
         } else {
-            sink.append("return switch (localeTag)");
-            sink.begin();
+            sink.append(name);
         }
+    }
+
+    void generateSizeHints(CharSink sink) throws IOException {
+        for (var property : properties.values()) {
+            sink.append("public static final int ").append(sizeHintName(property.methodName()));
+            sink.append(" = ").append(Integer.toString(sizeHint(property))).append(';');
+            sink.ln();
+        }
+    }
 
+    // Estimated length of the message in the longest locale
+    int sizeHint(Property property) {
+        int sizeHint = 0;
         for (int localeTag = 0; localeTag < procResources.locales.size(); localeTag++) {
-            var localeSettings = procResources.locales.get(localeTag);
+            sizeHint = Math.max(sizeHint, sizeHint(property, localeTag, new HashSet<>()));
+        }
+        return sizeHint;
+    }
+
+    int sizeHint(Property property, int localeTag, Set<Property> visiting) {
+        if (!visiting.add(property)) {
+            return DEFAULT_ARG_SIZE_HINT;
+        }
+
+        int result = 0;
+        var types = parameterTypes(property);
+        if (property instanceof OrdinalProperty p) {
+            result = sizeHint(p.messages[localeTag], types, localeTag, visiting);
+        } else if (property instanceof PluralProperty p) {
+            for (var message : p.messages[localeTag]) {
+                result = Math.max(result, sizeHint(message, types, localeTag, visiting));
+            }
+        }
+
+        visiting.remove(property);
+        return result;
+    }
+
+    int sizeHint(Message message, Map<String, String> types, int localeTag, Set<Property> visiting) {
+        int result = 0;
+        for (String token : message.tokens) {
+            result += token.length();
+        }
+
+        for (Arg arg : message.args) {
+            if (arg instanceof PropertyArg p) {
+                result += sizeHint(properties.get(p.baseKey()), localeTag, visiting);
+            } else if (arg instanceof DefaultArg p) {
+                result += ArgFormats.sizeHint(types.get(p.name), p.format);
+            } else if (arg instanceof ParameterArg p) {
+                result += ArgFormats.sizeHint(p.type, p.format);
+            } else {
+                result += DEFAULT_ARG_SIZE_HINT;
+            }
+        }
+        return result;
+    }
+
+    static final int DEFAULT_ARG_SIZE_HINT = 16;
+
+    static int typeSizeHint(String type) {
+        if (type == null) {
+            return DEFAULT_ARG_SIZE_HINT;
+        }
+        return switch (type) {
+            case "long", "Long" -> 20;
+            case "int", "Integer" -> 11;
+            case "short", "Short" -> 6;
+            case "byte", "Byte" -> 4;
+            case "char", "Character" -> 1;
+            case "boolean", "Boolean" -> 5;
+            default -> DEFAULT_ARG_SIZE_HINT;
+        };
+    }
+
+    void printMessage(CharSink sink, Message message, int sizeHint) throws IOException {
+        // Message of constant code and text is concatenated once. Texts of table are per instance, so they are skipped
+        if (textTable == null && isConstant(message)) {
+            var out = new StringWriter();
+            printMessage0(new CharSink(out), message, sizeHint);
+
+            boolean lazy = false;
+            for (Arg arg : message.args) {
+                lazy |= ((CodeArg) arg).lazy;
+            }
+            sink.append(constantExpression(out.toString(), lazy));
+            return;
+        }
+
+        printMessage0(sink, message, sizeHint);
+    }
+
+    void printMessage0(CharSink sink, Message message, int sizeHint) throws IOException {
+        if (message.tokens.length == 0) {
+            sink.append("\"\"");
+            return;
+        }
+
+        if (concatStrategy == ConcatStrategy.BUILDER && message.args.length != 0) {
+            printBuilderMessage(sink, message, sizeHint);
+            return;
+        }
+
+        for (int i = 0, k = 0; i < message.tokens.length; i++) {
+            sink.append(tokenExpression(message, i));
+
+            if (k < message.args.length) {
+                sink.append(" + ");
+                printArgExpression(sink, message.args[k++]);
+            }
+
+            if (i != message.tokens.length - 1) {
+                sink.append(" + ");
+            }
+        }
+    }
+
+    // Same message as chain of appends, which has no invokedynamic call sites to link.
+    // Formatted arguments wrap the chain, so they write into the same builder
+    void printBuilderMessage(CharSink sink, Message message, int sizeHint) throws IOException {
+        var out = new StringWriter();
+        var chain = new CharSink(out);
+        chain.append("new StringBuilder(").append(Integer.toString(sizeHint)).append(')');
+        for (int i = 0, k = 0; i < message.tokens.length; i++) {
+            String token = message.tokens[i];
+            if (!token.isEmpty()) {
+                chain.append(".append(");
+                if (textTable != null) {
+                    chain.append(tokenExpression(message, i));
+                } else {
+                    chain.append(token.length() == 1 ? makeCharLiteral(token.charAt(0)) : makeLiteral(token));
+                }
+                chain.append(')');
+            }
+
+            if (k < message.args.length) {
+                Arg arg = message.args[k++];
+                String format = argFormat(arg);
+                if (format != null) {
+                    String wrapped = argFormatExpression(format) + ".formatTo(" + out + ", " + ((NamedArg) arg).name() + ')';
+                    out.getBuffer().setLength(0);
+                    chain.append(wrapped);
+                    continue;
+                }
+
+                chain.append(".append(");
+                printArgExpression(chain, arg);
+                chain.append(')');
+            }
+        }
+        sink.append(out.toString()).append(".toString()");
+    }
+
+    void printArgExpression(CharSink sink, Arg arg) throws IOException {
+        if (arg instanceof CodeArg c) {
+            sink.append(c.constant ? constantExpression(c) : c.code);
+        } else if (arg instanceof OrdinalPropertyArg p) {
+            sink.append(p.methodName);
+            sink.append('(');
+            for (int v = 0; v < p.propertyArgs.length; v++) {
+                sink.append(p.propertyArgs[v]);
+                if (v != p.propertyArgs.length - 1) {
+                    sink.append(", ");
+                }
+            }
+            sink.append(')');
+        } else if (arg instanceof PluralPropertyArg p) {
+            sink.append(p.methodName);
+            sink.append('(');
+            sink.append(p.amountArg);
+            sink.append(')');
+        } else if (arg instanceof DefaultArg p) {
+            printArgValue(sink, p.name, p.format);
+        } else if (arg instanceof ParameterArg p) {
+            printArgValue(sink, p.name, p.format);
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    void printArgValue(CharSink sink, String name, String format) throws IOException {
+        if (format != null) {
+            sink.append(argFormatExpression(format)).append(".format(").append(name).append(')');
+        } else {
+            sink.append(name);
+        }
+    }
+
+    static String argFormat(Arg arg) {
+        return arg instanceof NamedArg p ? p.format() : null;
+    }
+
+    // Format of the current locale, holder is initialized on the first use of the format
+    String argFormatExpression(String format) {
+        String name = argFormats.computeIfAbsent(format, k -> "Format" + argFormats.size());
+        return name + ".VALUES[localeTag().ordinal()]";
+    }
 
-            if (!procResources.isSingle()) {
-                sink.append("case ").append(localeSettings.localeTag).append(" -> ");
+    boolean hasArgFormats() {
+        for (Property property : properties.values()) {
+            for (Message message : messages(property, REFERENCE_LOCALE_TAG)) {
+                for (Arg arg : message.args) {
+                    if (arg instanceof ParameterArg p && p.format != null) {
+                        return true;
+                    }
+                }
             }
+        }
+        return false;
+    }
 
-            sink.append("switch (index)");
+    void generateArgFormats(CharSink sink) throws IOException {
+        for (var e : argFormats.entrySet()) {
+            sink.ln();
+            sink.append("private static final class ").append(e.getValue());
+            sink.begin();
+            sink.append("static final ArgumentFormat[] VALUES =");
             sink.begin();
+            for (int i = 0; i < procResources.locales.size(); i++) {
+                var settings = procResources.locales.get(i);
+                sink.append("ArgumentFormat.of(LocaleTag.").append(settings.localeTag).append(".locale, ");
+                sink.append(makeLiteral(e.getKey())).append(')');
+                if (i != procResources.locales.size() - 1) {
+                    sink.append(',');
+                    sink.ln();
+                }
+            }
+            sink.endsc();
+            sink.end();
+        }
+    }
+
+    // Lookup methods dispatch on ids, which are slots of the perfect hash of keys,
+    // with a method per range of ids to keep them small enough for JIT
+    void generateLookupMethods(CharSink sink) throws IOException {
+        sink.ln();
+        sink.append("public static int lookupId(String key)");
+        sink.begin();
+        sink.append("return KeyIndex.INSTANCE.indexOf(key);");
+        sink.end();
 
-            var pluralForms = p.messages[localeTag];
+        sink.ln();
+        sink.append("public String message(String key)");
+        sink.begin();
+        sink.append("return message(lookupId(key), KeyIndex.NO_ARGS);");
+        sink.end();
 
-            for (int pluralForm = 0; pluralForm < pluralForms.length; pluralForm++) {
-                var message = pluralForms[pluralForm];
+        sink.ln();
+        sink.append("public String message(String key, Object... args)");
+        sink.begin();
+        sink.append("return message(lookupId(key), args);");
+        sink.end();
 
-                sink.append("case ").append(Integer.toString(pluralForm)).append(" -> ");
-                printMessage(sink, message);
+        int size = keyHash.keys.length;
+        int rangeCount = size + LOOKUP_RANGE_SIZE - 1 >>> LOOKUP_RANGE_SHIFT;
+        boolean unchecked = hasGenericParameters();
 
-                sink.append(';');
+        sink.ln();
+        if (unchecked && rangeCount <= 1) {
+            sink.append("@SuppressWarnings(\"unchecked\")").ln();
+        }
+        sink.append("public String message(int id, Object... args)");
+        sink.begin();
+        if (rangeCount <= 1) {
+            printLookupSwitch(sink, 0, size);
+        } else {
+            // Negative ids of missing keys fall to default
+            sink.append("return switch (id >>> ").append(Integer.toString(LOOKUP_RANGE_SHIFT)).append(')');
+            sink.begin();
+            for (int i = 0; i < rangeCount; i++) {
+                sink.append("case ").append(Integer.toString(i)).append(" -> message").append(Integer.toString(i));
+                sink.append("(id, args);");
                 sink.ln();
             }
-
-            sink.append("default -> throw new IllegalStateException();");
+            sink.append("default -> null;");
+            sink.ln();
             sink.endsc();
         }
+        sink.end();
+
+        if (rangeCount > 1) {
+            for (int i = 0; i < rangeCount; i++) {
+                sink.ln();
+                if (unchecked) {
+                    sink.append("@SuppressWarnings(\"unchecked\")").ln();
+                }
+                sink.append("private String message").append(Integer.toString(i)).append("(int id, Object[] args)");
+                sink.begin();
+                printLookupSwitch(sink, i << LOOKUP_RANGE_SHIFT, Math.min(size, i + 1 << LOOKUP_RANGE_SHIFT));
+                sink.end();
+            }
+        }
+
+        sink.ln();
+        sink.append("private static void checkArgs(Object[] args, int count)");
+        sink.begin();
+        sink.append("if (args.length != count)");
+        sink.begin();
+        sink.append("throw new IllegalArgumentException(\"Expected \" + count + \" arguments, but got \" + args.length);");
+        sink.end();
+        sink.end();
+    }
+
+    void printLookupSwitch(CharSink sink, int from, int to) throws IOException {
+        sink.append("return switch (id)");
+        sink.begin();
+        for (int id = from; id < to; id++) {
+            var property = properties.get(keyHash.keys[id]);
+            var types = new ArrayList<String>();
+            if (property instanceof OrdinalProperty p) {
+                for (var parameter : parameters(p)) {
+                    types.add(parameter.type);
+                }
+            } else {
+                types.add("long");
+            }
+
+            sink.append("case ").append(Integer.toString(id)).append(" ->");
+            sink.begin();
+            sink.append("checkArgs(args, ").append(Integer.toString(types.size())).append(");");
+            sink.ln();
+            sink.append("yield ").append(property.methodName()).append('(');
+            for (int i = 0; i < types.size(); i++) {
+                if (i != 0) {
+                    sink.append(", ");
+                }
+                sink.append(lookupArgExpression(types.get(i), "args[" + i + ']'));
+            }
+            sink.append(");");
+            sink.end();
+        }
+        sink.append("default -> null;");
+        sink.ln();
+        sink.endsc();
+    }
+
+    // Numbers are accepted in any boxed type, other parameters as is, except Strings, which take any object
+    static String lookupArgExpression(String type, String arg) {
+        return switch (type) {
+            case "String" -> "String.valueOf(" + arg + ")";
+            case "long", "int", "short", "byte", "double", "float" -> "((Number) " + arg + ")." + type + "Value()";
+            case "boolean" -> "(Boolean) " + arg;
+            case "char" -> "(Character) " + arg;
+            default -> "(" + type + ") " + arg;
+        };
+    }
+
+    boolean hasGenericParameters() {
+        for (Property property : properties.values()) {
+            if (property instanceof OrdinalProperty p) {
+                for (var parameter : parameters(p)) {
+                    if (parameter.type.indexOf('<') != -1) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
 
-        if (!procResources.isSingle()) {
-            sink.endsc();
+    void generateKeyIndex(CharSink sink) throws IOException {
+        if (keyHash == null) {
+            return;
         }
 
+        sink.ln();
+        sink.append("private static final class KeyIndex");
+        sink.begin();
+        sink.append("static final Object[] NO_ARGS = {};");
+        sink.ln();
+        sink.append("static final PerfectHash INSTANCE = ");
+        printPerfectHash(sink, keyHash);
+        sink.append(';');
         sink.end();
     }
 
-    void generateOrdinalPropertyMethod(CharSink sink, OrdinalProperty p) throws IOException {
+    // Keys are printed as a string table in slot order and seeds as octal escapes
+    void printPerfectHash(CharSink sink, PerfectHash hash) throws IOException {
+        sink.append("new PerfectHash(").append(Integer.toString(hash.salt));
+        sink.append(", StringTable.unpack(").append(Integer.toString(hash.keys.length));
 
-        var referenceMessage = p.messages[REFERENCE_LOCALE_TAG];
-        var parameters = Arrays.stream(referenceMessage.args)
-                .<ParameterArg>mapMulti((arg, consumer) -> {
-                    if (arg instanceof ParameterArg pa) {
-                        consumer.accept(pa);
-                    }
-                })
-                .sorted(Comparator.comparingInt(c -> c.pos))
-                .toList();
-        for (int i = 0; i < parameters.size(); i++) {
-            var parameterArg = parameters.get(i);
-            sink.append(parameterArg.type).append(" ").append(parameterArg.name);
+        sink.incIndent(CharSink.LINE_WRAP_INDENT);
+        for (String chunk : TextTable.chunks(Arrays.asList(hash.keys))) {
+            sink.append(',');
+            sink.ln();
+            printTableChunk(sink, chunk);
+        }
+        sink.append(')');
+        for (String literal : hash.seedChunks()) {
+            sink.append(',');
+            for (int i = 0; i < literal.length(); ) {
+                int end = Math.min(literal.length(), i + lineWrap - 20);
+                // Do not break escape sequence
+                while (end < literal.length() && literal.charAt(end) != '\\') {
+                    end++;
+                }
 
-            if (i != parameters.size() - 1) {
-                sink.append(", ");
+                sink.ln();
+                sink.append('"').append(literal.substring(i, end)).append('"');
+                if (end != literal.length()) {
+                    sink.append(" +");
+                }
+                i = end;
             }
         }
-
+        sink.decIndent(CharSink.LINE_WRAP_INDENT);
         sink.append(')');
-        sink.begin();
+    }
 
-        if (procResources.isSingle()) {
-            sink.append("return ");
-        } else {
-            sink.append("return switch (localeTag)");
-            sink.begin();
+    // Adapter for libraries, which require ResourceBundle. Bundles hold raw texts of the properties files
+    // with inherited ones, like PropertyResourceBundle would load them, but parsed at build time
+    void generateResourceBundle(CharSink sink) throws IOException {
+        if (!resourceBundles) {
+            return;
         }
 
-        for (int localeTag = 0; localeTag < procResources.locales.size(); localeTag++) {
-            var localeSettings = procResources.locales.get(localeTag);
-
-            if (!procResources.isSingle()) {
-                sink.append("case ").append(localeSettings.localeTag).append(" -> ");
-            }
+        sink.ln();
+        sink.append("public abstract static sealed class Bundle extends ResourceBundle");
+        sink.begin();
+        sink.append("public static final String BASE_NAME = ").append(makeLiteral(bundleBaseName())).append(';');
+        sink.ln(2);
 
-            var message = p.messages[localeTag];
-            printMessage(sink, message);
+        sink.append("private final LocaleTag localeTag;");
+        sink.ln();
+        sink.append("private final PerfectHash keys;");
+        sink.ln();
+        sink.append("private final String[] values;");
+        sink.ln(2);
+        sink.append("private Bundle(LocaleTag localeTag, PerfectHash keys, String[] values)");
+        sink.begin();
+        sink.append("this.localeTag = localeTag;");
+        sink.ln();
+        sink.append("this.keys = keys;");
+        sink.ln();
+        sink.append("this.values = values;");
+        sink.end();
 
-            sink.append(';');
+        sink.ln();
+        sink.append("public static Bundle forTag(LocaleTag localeTag)");
+        sink.begin();
+        // Contents of locale are only loaded on the first access to its class
+        sink.append("return switch (localeTag)");
+        sink.begin();
+        for (var settings : procResources.locales) {
+            sink.append("case ").append(settings.localeTag).append(" -> ");
+            sink.append(subclassName(settings)).append("Bundle.INSTANCE;");
             sink.ln();
         }
+        sink.endsc();
+        sink.end();
 
-        if (!procResources.isSingle()) {
-            sink.endsc();
-        }
+        // ResourceBundle.Control isn't supported in named modules, so there bundles of candidate locales
+        // are chained like ResourceBundle.getBundle() does. Parents only depend on the locale of the bundle,
+        // so they are the same for all calls
+        sink.ln();
+        sink.append("public static ResourceBundle get(Locale locale)");
+        sink.begin();
+        sink.append("if (!Bundle.class.getModule().isNamed())");
+        sink.begin();
+        sink.append("return ResourceBundle.getBundle(BASE_NAME, locale, Control.INSTANCE);");
+        sink.end();
+        sink.append("Bundle result = chain(locale);");
+        sink.ln();
+        // Bundle of the default locale is preferred to the base bundle of other locales
+        sink.append("if ((result == null || result.getLocale().equals(Locale.ROOT) && !locale.equals(Locale.ROOT))").lb();
+        sink.append("&& !locale.equals(Locale.getDefault()))");
+        sink.begin();
+        sink.append("Bundle fallback = chain(Locale.getDefault());");
+        sink.ln();
+        sink.append("if (fallback != null)");
+        sink.begin();
+        sink.append("result = fallback;");
+        sink.end();
+        sink.end();
+        sink.append("if (result == null)");
+        sink.begin();
+        sink.append("throw new MissingResourceException(\"Can't find bundle for base name \" + BASE_NAME +").lb();
+        sink.append("\", locale \" + locale, BASE_NAME + \"_\" + locale, \"\");");
+        sink.end();
+        sink.append("return result;");
+        sink.end();
+
+        sink.ln();
+        sink.append("private static Bundle chain(Locale locale)");
+        sink.begin();
+        sink.append("Bundle result = null;");
+        sink.ln();
+        sink.append("Bundle child = null;");
+        sink.ln();
+        sink.append("for (Locale candidate : Control.INSTANCE.getCandidateLocales(BASE_NAME, locale))");
+        sink.begin();
+        sink.append("LocaleTag localeTag = LocaleTag.of(candidate.toString());");
+        sink.ln();
+        sink.append("if (localeTag == null)");
+        sink.begin();
+        sink.append("continue;");
+        sink.end();
+        sink.append("Bundle bundle = forTag(localeTag);");
+        sink.ln();
+        sink.append("if (child != null)");
+        sink.begin();
+        sink.append("child.setParent(bundle);");
+        sink.end();
+        sink.append("if (result == null)");
+        sink.begin();
+        sink.append("result = bundle;");
+        sink.end();
+        sink.append("child = bundle;");
+        sink.end();
+        sink.append("return result;");
+        sink.end();
 
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("public Locale getLocale()");
+        sink.begin();
+        sink.append("return localeTag.locale;");
+        sink.end();
 
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("protected Object handleGetObject(String key)");
+        sink.begin();
+        sink.append("int slot = keys.indexOf(key);");
+        sink.ln();
+        sink.append("return slot != -1 ? values[slot] : null;");
         sink.end();
-    }
 
-    void generateLocaleTagConstants(CharSink sink) throws IOException {
         sink.ln();
-        sink.append("public enum LocaleTag implements io.github.skykatik.staticbundle.LocaleTag");
+        sink.append("@Override").ln();
+        sink.append("protected Set<String> handleKeySet()");
+        sink.begin();
+        sink.append("Set<String> result = new HashSet<>();");
+        sink.ln();
+        sink.append("for (int i = 0; i < keys.size(); i++)");
         sink.begin();
+        sink.append("result.add(keys.key(i));");
+        sink.end();
+        sink.append("return result;");
+        sink.end();
 
-        for (int i = 0; i < procResources.locales.size(); i++) {
-            var settings = procResources.locales.get(i);
+        sink.ln();
+        sink.append("@Override").ln();
+        sink.append("public Enumeration<String> getKeys()");
+        sink.begin();
+        sink.append("Set<String> result = handleKeySet();");
+        sink.ln();
+        sink.append("if (parent != null)");
+        sink.begin();
+        sink.append("result.addAll(parent.keySet());");
+        sink.end();
+        sink.append("return Collections.enumeration(result);");
+        sink.end();
 
-            sink.append(settings.localeTag);
-            sink.append('(');
-            sink.append(constructLocale(settings.locale));
-            sink.append(')');
+        for (var settings : procResources.locales) {
+            var contents = bundleContents(settings);
+            var hash = PerfectHash.build(contents.keySet());
+            var values = new ArrayList<String>(hash.keys.length);
+            for (String key : hash.keys) {
+                values.add(contents.get(key));
+            }
 
-            if (i != procResources.locales.size() - 1) {
+            String name = subclassName(settings) + "Bundle";
+            sink.ln();
+            sink.append("private static final class ").append(name).append(" extends Bundle");
+            sink.begin();
+            sink.append("static final ").append(name).append(" INSTANCE = new ").append(name).append("();");
+            sink.ln(2);
+            sink.append("private ").append(name).append("()");
+            sink.begin();
+            sink.append("super(LocaleTag.").append(settings.localeTag).append(", ");
+            printPerfectHash(sink, hash);
+            sink.append(", StringTable.unpack(").append(Integer.toString(values.size()));
+            sink.incIndent(CharSink.LINE_WRAP_INDENT);
+            for (String chunk : TextTable.chunks(values)) {
                 sink.append(',');
                 sink.ln();
+                printTableChunk(sink, chunk);
             }
+            sink.decIndent(CharSink.LINE_WRAP_INDENT);
+            sink.append("));");
+            sink.end();
+            sink.end();
         }
 
-        sink.append(';');
-        sink.ln(2);
-
-        sink.append("public final Locale locale;");
+        // Bundles are created by the class, so there are no resources to find, load or parse
+        sink.ln();
+        sink.append("public static final class Control extends ResourceBundle.Control");
+        sink.begin();
+        sink.append("public static final Control INSTANCE = new Control();");
         sink.ln(2);
-
-        sink.append("LocaleTag(Locale locale)");
+        sink.append("@Override").ln();
+        sink.append("public List<String> getFormats(String baseName)");
         sink.begin();
-        sink.append("this.locale = locale;");
+        sink.append("return FORMAT_CLASS;");
         sink.end();
 
         sink.ln();
         sink.append("@Override").ln();
-        sink.append("public Locale locale()");
+        sink.append("public ResourceBundle newBundle(String baseName, Locale locale, String format,").lb();
+        sink.append("ClassLoader loader, boolean reload)");
         sink.begin();
-        sink.append("return locale;");
+        sink.append("if (!baseName.equals(BASE_NAME))");
+        sink.begin();
+        sink.append("return null;");
         sink.end();
-
+        sink.append("LocaleTag localeTag = LocaleTag.of(locale.toString());");
         sink.ln();
-        sink.append("public static LocaleTag of(String localeString)");
-        sink.begin();
-        sink.append("return switch (localeString)");
-        sink.begin();
-
-        for (int i = 0; i < procResources.locales.size(); i++) {
-            var settings = procResources.locales.get(i);
-            sink.append("case ").append(makeLiteral(settings.locale.toString())).append(" -> ");
-            sink.append(settings.localeTag);
-            sink.append(";\n");
-        }
-        sink.append("default -> null;");
-        sink.endsc();
+        sink.append("return localeTag != null ? forTag(localeTag) : null;");
+        sink.end();
         sink.end();
 
         sink.end();
     }
 
-    void generatePluralFormMethod(CharSink sink) throws IOException {
-        sink.ln();
-
-        sink.append("@Override").ln();
-        sink.append("public int pluralForm(long value)");
-        sink.begin();
-
-        if (procResources.isSingle()) {
-            sink.append("return ");
-        } else {
-            sink.append("return switch (localeTag)");
-            sink.begin();
+    // Base name of ResourceBundle: file name format without locale and extension, e.g. 'i18n.messages'
+    String bundleBaseName() {
+        int end = resourceFilenameFormat.indexOf("{locale}");
+        if (end == -1) {
+            end = resourceFilenameFormat.lastIndexOf('.');
         }
+        return resourceFilenameFormat.substring(0, end != -1 ? end : resourceFilenameFormat.length()).replace('/', '.');
+    }
 
-        for (var settings : procResources.locales) {
-            if (!procResources.isSingle()) {
-                sink.append("case ").append(settings.localeTag).append(" -> ");
+    // Own properties of the file and the ones inherited from parent locales
+    Map<String, String> bundleContents(LocaleSettings settings) {
+        var result = new TreeMap<String, String>();
+        for (var current = settings; current != null; current = current.parent) {
+            for (var e : current.bundleProperties.entrySet()) {
+                result.putIfAbsent(e.getKey(), e.getValue());
             }
-
-            sink.append(settings.pluralFormFunction).append(';');
-            sink.ln();
         }
 
-        if (!procResources.isSingle()) {
-            sink.endsc();
+        for (var e : result.entrySet()) {
+            if (e.getKey().indexOf(TextTable.SEPARATOR) != -1 || e.getValue().indexOf(TextTable.SEPARATOR) != -1) {
+                throw settings.problem(e.getKey(), "Property with NUL character is not supported by resource bundles");
+            }
         }
-
-        sink.end();
+        return result;
     }
 
-    void generateWithLocaleTagMethod(CharSink sink) throws IOException {
-        sink.ln();
+    // Lookup methods are overloads of property methods with the same name
+    void checkForLookupConflicts() {
+        var reference = procResources.locales.get(REFERENCE_LOCALE_TAG);
+        for (Property property : properties.values()) {
+            String name = property.methodName();
+            if (name.equals("lookupId") || name.equals("message") &&
+                    (property instanceof PluralProperty || !parameters((OrdinalProperty) property).isEmpty())) {
+                throw reference.problem(property.key(), "Method '" + name + "' with parameters " +
+                        "conflicts with lookup methods, rename property or disable lookup methods");
+            }
+            if (property.key().indexOf(TextTable.SEPARATOR) != -1) {
+                throw reference.problem(property.key(), "Key with NUL character is not supported by lookup methods");
+            }
+        }
+    }
 
-        sink.append("public ").append(className).append(" withLocaleTag(LocaleTag localeTag)");
-        sink.begin();
+    // Types of parameters from java.math and java.time, which can be used by simple name
+    Set<String> typeImports() {
+        var result = new TreeSet<String>();
+        if (fractionalPlurals()) {
+            result.add("java.math.BigDecimal");
+        }
+        for (Property property : properties.values()) {
+            for (Message message : messages(property, REFERENCE_LOCALE_TAG)) {
+                for (Arg arg : message.args) {
+                    if (arg instanceof ParameterArg p) {
+                        if (ArgFormats.NUMBER_TYPES.contains(p.type) && p.type.startsWith("Big")) {
+                            result.add("java.math." + p.type);
+                        } else if (ArgFormats.TEMPORAL_TYPES.contains(p.type)) {
+                            result.add((p.type.equals("TemporalAccessor") ? "java.time.temporal." : "java.time.") + p.type);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
 
-        if (procResources.isSingle()) {
-            sink.append("return this;");
-        } else {
-            sink.append("if (this.localeTag == localeTag) return this;");
-            sink.ln();
-            sink.append("return new ").append(className).append("(localeTag);");
+    static boolean isConstant(Message message) {
+        for (Arg arg : message.args) {
+            if (!(arg instanceof CodeArg c) || !c.constant) {
+                return false;
+            }
         }
+        return message.args.length != 0;
+    }
 
-        sink.end();
+    String constantExpression(CodeArg arg) {
+        return constantExpression("String.valueOf(" + arg.code + ")", arg.lazy);
     }
 
-    void printMessage(CharSink sink, Message message) throws IOException {
-        for (int i = 0, k = 0; i < message.tokens.length; i++) {
-            sink.append(message.tokens[i]);
+    String constantExpression(String code, boolean lazy) {
+        var constant = constants.computeIfAbsent((lazy ? "lazy " : "") + code, k -> {
+            String name = lazy ? "LazyConstant" + constants.size() : "CONSTANT_" + constants.size();
+            return new Constant(name, code, lazy);
+        });
+        return lazy ? constant.name + ".VALUE" : constant.name;
+    }
 
-            if (k < message.args.length) {
-                Arg arg = message.args[k++];
+    record Constant(String name, String code, boolean lazy) {
+    }
 
-                sink.append(" + ");
-                if (arg instanceof CodeArg c) {
-                    sink.append(c.code);
-                } else if (arg instanceof OrdinalPropertyArg p) {
-                    sink.append(p.methodName);
-                    sink.append('(');
-                    for (int v = 0; v < p.propertyArgs.length; v++) {
-                        sink.append(p.propertyArgs[v]);
-                        if (v != p.propertyArgs.length - 1) {
-                            sink.append(", ");
-                        }
-                    }
-                    sink.append(')');
-                } else if (arg instanceof PluralPropertyArg p) {
-                    sink.append(p.methodName);
-                    sink.append('(');
-                    sink.append(p.amountArg);
-                    sink.append(')');
-                } else if (arg instanceof DefaultArg p) {
-                    sink.append(p.name);
-                } else if (arg instanceof ParameterArg p) {
-                    sink.append(p.name);
-                } else {
-                    throw new IllegalStateException();
+    void generateConstants(CharSink sink) throws IOException {
+        boolean eager = false;
+        for (var constant : constants.values()) {
+            if (!constant.lazy) {
+                if (!eager) {
+                    sink.ln();
+                    eager = true;
                 }
+                sink.append("private static final String ").append(constant.name);
+                sink.append(" = ").append(constant.code).append(';');
+                sink.ln();
             }
+        }
 
-            if (i != message.tokens.length - 1) {
-                sink.append(" + ");
+        // Holder classes are initialized on the first use of their value
+        for (var constant : constants.values()) {
+            if (constant.lazy) {
+                sink.ln();
+                sink.append("private static final class ").append(constant.name);
+                sink.begin();
+                sink.append("static final String VALUE = ").append(constant.code).append(';');
+                sink.end();
             }
         }
     }
 
-    Bundle loadBundle(Locale locale) throws IOException {
+    String tokenExpression(Message message, int token) {
+        String text = message.tokens[token];
+        if (textTable == null || text.isEmpty()) {
+            return makeLiteral(text);
+        }
+        return "texts[" + textTable.index(message, token) + ']';
+    }
+
+    String bundleFileName(Locale locale) {
         String localeTag = locale.equals(Locale.ROOT) ? "" : "_" + locale;
+        return resourceFilenameFormat.replace("{locale}", localeTag);
+    }
 
-        String fileName = resourceFilenameFormat.replace("{locale}", localeTag);
-        Path resourcePath = null;
-        for (File resource : resources) {
-            if (resource.getName().equals(fileName)) {
-                resourcePath = resource.toPath();
-                break;
+    Bundle bundle(LocaleSettings settings) throws IOException {
+        var file = readBundles != null ? readBundles[settings.localeTagValue] : readBundle(settings);
+        if (file.content == null) {
+            return new Bundle(file.resourcePath, Map.of());
+        }
+
+        var props = cache != null ? cache.properties(file.contentHash) : null;
+        if (props == null) {
+            // Malformed input is reported like by Files.newBufferedReader()
+            var decoder = StandardCharsets.UTF_8.newDecoder();
+            var in = new InputStreamReader(new ByteArrayInputStream(file.content), decoder);
+            try (var reader = new BufferedReader(in)) {
+                props = PropertiesReader.load(file.resourcePath, reader);
+            }
+            if (cache != null) {
+                // Cached properties are shared by processors, so they are read-only
+                props = Collections.unmodifiableMap(props);
+                cache.putProperties(file.contentHash, props);
             }
         }
+        return new Bundle(file.resourcePath, props);
+    }
 
+    BundleFile readBundle(LocaleSettings settings) throws IOException {
+        String fileName = bundleFileName(settings.locale);
+        Path resourcePath = bundleFiles.get(fileName);
         if (resourcePath == null) {
+            // Bundles of locales with a parent only hold overrides, so they may be absent
+            if (settings.parent != null) {
+                return new BundleFile(fileName, null, "");
+            }
             throw new FileNotFoundException(fileName);
         }
 
-        String relative = project.relativePath(resourcePath);
-        try (var reader = Files.newBufferedReader(resourcePath)) {
-            var props = PropertiesReader.load(relative, reader);
-            return new Bundle(relative, props);
-        }
+        byte[] content = Files.readAllBytes(resourcePath);
+        String contentHash = cache != null ? BundleCache.contentHash(content) : "";
+        return new BundleFile(projectDir.relativize(resourcePath).toString(), content, contentHash);
+    }
+
+    // Hash of contents is only computed with the cache, contents are null for absent bundles
+    record BundleFile(String resourcePath, byte[] content, String contentHash) {
     }
 
     record Bundle(String resourcePath, Map<String, String> properties) {
@@ -575,6 +2979,52 @@ public class StaticBundleProcessor {
 
     // region utilities
 
+    static String utf8SegmentsName(LocaleSettings settings) {
+        return "Utf8" + subclassName(settings);
+    }
+
+    static String textsMethodName(LocaleSettings settings) {
+        String name = subclassName(settings);
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1) + "Texts";
+    }
+
+    static String sizeHintName(String methodName) {
+        return upperSnakeCase(methodName) + "_SIZE_HINT";
+    }
+
+    static String upperSnakeCase(String methodName) {
+        var result = new StringBuilder(methodName.length() + 4);
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (Character.isUpperCase(c) && i != 0) {
+                result.append('_');
+            }
+            result.append(Character.toUpperCase(c));
+        }
+        return result.toString();
+    }
+
+    static String subclassName(LocaleSettings settings) {
+        return subclassName(settings.localeTag);
+    }
+
+    static String subclassName(String localeTag) {
+        var result = new StringBuilder(localeTag.length());
+        boolean upper = true;
+        for (int i = 0; i < localeTag.length(); i++) {
+            char c = localeTag.charAt(i);
+            if (c == '_') {
+                upper = true;
+            } else if (upper) {
+                result.append(Character.toUpperCase(c));
+                upper = false;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
     static String constructLocale(Locale locale) {
         if (locale.equals(Locale.ROOT)) {
             return "Locale.ROOT";
@@ -641,6 +3091,10 @@ public class StaticBundleProcessor {
         };
     }
 
+    static String makeCharLiteral(char c) {
+        return "'" + escape(c) + "'";
+    }
+
     static String makeLiteral(String text) {
         StringBuilder out = new StringBuilder(text.length() + 2);
         out.append('"');
@@ -658,15 +3112,36 @@ public class StaticBundleProcessor {
 
     // endregion
 
-    record ProcessingResources(List<LocaleSettings> locales, PropertyNaming naming,
-                               Function<String, String> contentTransformer) {
+    enum Output {
+        STRING_BUILDER("StringBuilder", "append", false),
+        APPENDABLE("Appendable", "append", true),
+        BYTE_BUFFER("ByteBuffer", "writeUtf8", false),
+        OUTPUT_STREAM("OutputStream", "writeUtf8", true);
+
+        final String type;
+        final String methodPrefix;
+        final boolean throwsIOException;
+
+        Output(String type, String methodPrefix, boolean throwsIOException) {
+            this.type = type;
+            this.methodPrefix = methodPrefix;
+            this.throwsIOException = throwsIOException;
+        }
 
-        boolean isSingle() {
-            return locales.size() == 1;
+        boolean isUtf8() {
+            return this == BYTE_BUFFER || this == OUTPUT_STREAM;
         }
+
+        String methodName(String methodName) {
+            return methodPrefix + Character.toUpperCase(methodName.charAt(0)) + methodName.substring(1);
+        }
+    }
+
+    record ProcessingResources(List<LocaleSettings> locales, PropertyNaming naming,
+                               ContentTransformer contentTransformer) {
     }
 
-    record Message(Arg[] args, String[] tokens) {
+    record Message(Arg[] args, String[] tokens) implements Serializable {
 
         static Message parse(ProcessingResources procResources,
                              LocaleSettings settings, ArgTable argTable, String key, String text) {
@@ -695,7 +3170,7 @@ public class StaticBundleProcessor {
 
                     Arg arg;
                     if (call) {
-                        arg = new CodeArg(argText);
+                        arg = CodeArg.parse(argText);
                     } else if (propertyCall) {
                         arg = parsePropertyArg(settings, argTable, key, argText);
                     } else {
@@ -707,16 +3182,16 @@ public class StaticBundleProcessor {
                     }
 
                     int begin = call || propertyCall ? i - 1 : i;
-                    String part = procResources.contentTransformer.apply(text.substring(prev, begin));
-                    tokens.add(makeLiteral(part));
+                    String part = procResources.contentTransformer.transform(text.substring(prev, begin));
+                    tokens.add(part);
 
                     args.add(arg);
                     prev = end + 1;
                 }
             }
             if (prev != text.length()) {
-                String remains = procResources.contentTransformer.apply(text.substring(prev));
-                tokens.add((makeLiteral(remains)));
+                String remains = procResources.contentTransformer.transform(text.substring(prev));
+                tokens.add(remains);
             }
 
             if (settings.localeTagValue == REFERENCE_LOCALE_TAG) {
@@ -826,8 +3301,8 @@ public class StaticBundleProcessor {
                                      String key, String argText) {
             String[] parts;
             if (settings.localeTagValue == REFERENCE_LOCALE_TAG && (parts = argText.split(":")).length >= 2) {
-                if (parts.length > 3) {
-                    throw settings.problem(key, "Malformed argument with 3 and more parts.");
+                if (parts.length > 4) {
+                    throw settings.problem(key, "Malformed argument with 5 and more parts.");
                 }
 
                 String posStr = parts[0];
@@ -859,8 +3334,15 @@ public class StaticBundleProcessor {
                             name + "' reuses index of '" + occupiedName + "'");
                 }
 
-                String type = parts.length == 3 ? parts[2] : "String";
-                return new ParameterArg(pos, type, name);
+                String type = parts.length >= 3 ? parts[2] : "String";
+                String format = parts.length == 4 ? parts[3] : null;
+                if (format != null) {
+                    String problem = ArgFormats.check(type, format);
+                    if (problem != null) {
+                        throw settings.problem(key, "Argument '" + name + "' " + problem);
+                    }
+                }
+                return new ParameterArg(pos, type, name, format);
             }
 
             String name;
@@ -903,7 +3385,17 @@ public class StaticBundleProcessor {
 
     // region Args model
 
-    record CodeArg(String code) implements Arg {
+    // Constant code is evaluated once into a static field, lazy one on the first use
+    record CodeArg(String code, boolean constant, boolean lazy) implements Arg {
+
+        static CodeArg parse(String text) {
+            if (text.startsWith("const lazy ")) {
+                return new CodeArg(text.substring("const lazy ".length()).trim(), true, true);
+            } else if (text.startsWith("const ")) {
+                return new CodeArg(text.substring("const ".length()).trim(), true, false);
+            }
+            return new CodeArg(text, false, false);
+        }
     }
 
     sealed interface PropertyArg extends Arg {
@@ -974,17 +3466,29 @@ public class StaticBundleProcessor {
         }
     }
 
-    record ParameterArg(int pos, String type, String name) implements Arg {
+    record ParameterArg(int pos, String type, String name, String format) implements NamedArg {
     }
 
     record DeferredArg(int pos, String name) implements Arg {
 
     }
 
-    record DefaultArg(String name) implements Arg {
+    record DefaultArg(String name, String format) implements NamedArg {
+
+        DefaultArg(String name) {
+            this(name, null);
+        }
+    }
+
+    // Parameter of the property, format is not null when its value is formatted by ArgumentFormat
+    sealed interface NamedArg extends Arg {
+
+        String name();
+
+        String format();
     }
 
-    sealed interface Arg {
+    sealed interface Arg extends Serializable {
     }
 
     // endregion
@@ -1034,7 +3538,7 @@ public class StaticBundleProcessor {
         }
     }
 
-    sealed interface Property {
+    sealed interface Property extends Serializable {
 
         String key();
 
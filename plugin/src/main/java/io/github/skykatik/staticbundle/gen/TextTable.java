@@ -0,0 +1,141 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.gen.StaticBundleProcessor.Message;
+import io.github.skykatik.staticbundle.gen.StaticBundleProcessor.OrdinalProperty;
+import io.github.skykatik.staticbundle.gen.StaticBundleProcessor.PluralProperty;
+import io.github.skykatik.staticbundle.gen.StaticBundleProcessor.Property;
+
+import java.util.*;
+
+// Layout of message tokens for GenerationStrategy.TABLE. Every message gets
+// the same range of indexes in all locales, which is wide enough for the
+// message with the largest number of tokens, so generated accessors can
+// address tokens without knowing current locale.
+class TextTable {
+    static final char SEPARATOR = '\0';
+    // Limit of CONSTANT_Utf8_info, which holds modified UTF-8
+    static final int MAX_CHUNK_LENGTH = 65535;
+
+    final IdentityHashMap<Message, Integer> bases = new IdentityHashMap<>();
+    final String[][/*index*/] texts;
+    final int size;
+
+    TextTable(Collection<Property> properties, int localeCount) {
+        int next = 0;
+        for (var property : properties) {
+            if (property instanceof OrdinalProperty p) {
+                for (var message : p.messages()) {
+                    bases.put(message, next);
+                }
+                next += width(p.messages());
+            } else if (property instanceof PluralProperty p) {
+                int pluralForms = 0;
+                for (var forms : p.messages()) {
+                    pluralForms = Math.max(pluralForms, forms.length);
+                }
+
+                for (int n = 0; n < pluralForms; n++) {
+                    int width = 0;
+                    for (var forms : p.messages()) {
+                        if (n < forms.length) {
+                            bases.put(forms[n], next);
+                            width = Math.max(width, forms[n].tokens().length);
+                        }
+                    }
+                    next += width;
+                }
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        size = next;
+        texts = new String[localeCount][size];
+        for (int localeTag = 0; localeTag < localeCount; localeTag++) {
+            Arrays.fill(texts[localeTag], "");
+
+            for (var property : properties) {
+                if (property instanceof OrdinalProperty p) {
+                    put(localeTag, p.messages()[localeTag]);
+                } else if (property instanceof PluralProperty p) {
+                    for (var message : p.messages()[localeTag]) {
+                        put(localeTag, message);
+                    }
+                }
+            }
+        }
+    }
+
+    int index(Message message, int token) {
+        return bases.get(message) + token;
+    }
+
+    // Splits texts of locale into strings of separator-terminated entries,
+    // each of which fits into a single constant pool entry
+    List<String> chunks(int localeTag) {
+        return chunks(Arrays.asList(texts[localeTag]));
+    }
+
+    static List<String> chunks(Iterable<String> texts) {
+        var chunks = new ArrayList<String>();
+        var chunk = new StringBuilder();
+        int chunkLength = 0;
+        for (String text : texts) {
+            int length = modifiedUtf8Length(text) + modifiedUtf8Length(SEPARATOR);
+            if (length > MAX_CHUNK_LENGTH) {
+                throw new IllegalStateException("Message text is too long for the table: '" + text + "'");
+            }
+
+            if (chunkLength + length > MAX_CHUNK_LENGTH) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+                chunkLength = 0;
+            }
+
+            chunk.append(text).append(SEPARATOR);
+            chunkLength += length;
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk.toString());
+        }
+        return chunks;
+    }
+
+    void put(int localeTag, Message message) {
+        var row = texts[localeTag];
+        int base = bases.get(message);
+        for (int i = 0; i < message.tokens().length; i++) {
+            String token = message.tokens()[i];
+            if (token.indexOf(SEPARATOR) != -1) {
+                throw new IllegalStateException("Message text with NUL character is not supported by the table: '" + token + "'");
+            }
+            row[base + i] = token;
+        }
+    }
+
+    static int width(Message[] messages) {
+        int width = 0;
+        for (var m : messages) {
+            width = Math.max(width, m.tokens().length);
+        }
+        return width;
+    }
+
+    static int modifiedUtf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            length += modifiedUtf8Length(text.charAt(i));
+        }
+        return length;
+    }
+
+    static int modifiedUtf8Length(char c) {
+        if (c != 0 && c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        }
+        return 3;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.skykatik.staticbundle.plugin;
+
+public enum ConcatStrategy {
+    /**
+     * Messages with arguments are concatenated with {@code +}, which javac compiles
+     * to {@code invokedynamic} of {@code StringConcatFactory}. Fastest in steady state,
+     * but every call site is linked by its own bootstrap on the first call.
+     */
+    INDY,
+    /**
+     * Messages with arguments are built with a {@link StringBuilder} presized
+     * by the estimated length of the message. No bootstraps are linked, so the first
+     * call of each accessor is cheap, which suits short-lived processes and
+     * large catalogs, which are mostly used once.
+     */
+    BUILDER
+}
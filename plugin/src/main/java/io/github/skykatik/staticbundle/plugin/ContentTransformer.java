@@ -0,0 +1,81 @@
+package io.github.skykatik.staticbundle.plugin;
+
+import org.gradle.api.tasks.Input;
+
+import java.io.Serializable;
+
+/**
+ * Transformation of message texts between arguments. It is stored in the configuration cache
+ * and is a nested input of the generation task like {@link PropertyNaming}: its class and its
+ * properties annotated with {@link Input} are tracked, so implementations must be named
+ * serializable classes rather than lambdas, whose classes Gradle can't track.
+ *
+ * <p>Bundles of locales are parsed in parallel, so implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ContentTransformer extends Serializable {
+
+    static ContentTransformer identity() {
+        class Identity implements ContentTransformer {
+            static final Identity INSTANCE = new Identity();
+
+            @Override
+            public String transform(String text) {
+                return text;
+            }
+
+            private Object readResolve() {
+                return INSTANCE;
+            }
+
+            @Override
+            public String toString() {
+                return "ContentTransformer.identity()";
+            }
+        }
+
+        return Identity.INSTANCE;
+    }
+
+    /**
+     * Replaces every occurrence of {@code target} in texts, e.g. no-break spaces with plain ones.
+     */
+    static ContentTransformer replace(String target, String replacement) {
+        return new Replace(target, replacement);
+    }
+
+    String transform(String text);
+
+    final class Replace implements ContentTransformer {
+        private final String target;
+        private final String replacement;
+
+        Replace(String target, String replacement) {
+            if (target.isEmpty()) {
+                throw new IllegalArgumentException("Empty target of replacement");
+            }
+            this.target = target;
+            this.replacement = replacement;
+        }
+
+        @Input
+        public String getTarget() {
+            return target;
+        }
+
+        @Input
+        public String getReplacement() {
+            return replacement;
+        }
+
+        @Override
+        public String transform(String text) {
+            return text.replace(target, replacement);
+        }
+
+        @Override
+        public String toString() {
+            return "ContentTransformer.replace('" + target + "', '" + replacement + "')";
+        }
+    }
+}
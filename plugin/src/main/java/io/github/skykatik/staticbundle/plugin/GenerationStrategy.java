@@ -0,0 +1,22 @@
+package io.github.skykatik.staticbundle.plugin;
+
+public enum GenerationStrategy {
+    /**
+     * Single final class which selects the message of current locale
+     * with {@code switch (localeTag)} in every accessor.
+     */
+    SWITCH,
+    /**
+     * Sealed abstract class with one final subclass per locale,
+     * which accessors return the message of their locale directly.
+     */
+    SUBCLASS,
+    /**
+     * Same class as {@link #SWITCH}, but constant parts of messages are stored
+     * in per-locale {@code String[]} tables indexed by generated message id.
+     * Locales share accessor code when their messages have the same shape,
+     * which keeps bytecode size of very large catalogs close to linear
+     * in number of keys instead of keys times locales.
+     */
+    TABLE
+}
@@ -1,9 +1,11 @@
 package io.github.skykatik.staticbundle.plugin;
 
+import java.io.Serializable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public interface PropertyNaming {
+// Bundles of locales are parsed in parallel, so implementations must be thread-safe
+public interface PropertyNaming extends Serializable {
 
     static PropertyNaming instance() {
         class DefaultImpl implements PropertyNaming {
@@ -49,6 +51,10 @@ public interface PropertyNaming {
                 return new String(result, 0, d);
             }
 
+            private Object readResolve() {
+                return INSTANCE;
+            }
+
             @Override
             public String toString() {
                 return "DefaultPropertyKeyNaming.instance()";
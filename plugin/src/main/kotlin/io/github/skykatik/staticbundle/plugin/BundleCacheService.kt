@@ -0,0 +1,34 @@
+package io.github.skykatik.staticbundle.plugin
+
+import io.github.skykatik.staticbundle.gen.BundleCache
+import org.gradle.api.provider.Property
+import org.gradle.api.services.BuildService
+import org.gradle.api.services.BuildServiceParameters
+
+// Parsed bundles of all tasks of the build. Consecutive builds in the daemon mostly read the same bundles,
+// but Gradle closes the service at the end of every build, so a cache of its own would only serve a single
+// build. The service hands out the cache of the plugin class instead, which lives as long as the plugin
+// classes are loaded, and limits it to the size of the current build. Entries are keyed by hashes only,
+// so the cache doesn't keep classes of build scripts loaded
+abstract class BundleCacheService : BuildService<BundleCacheService.Parameters> {
+
+    interface Parameters : BuildServiceParameters {
+        // Estimated size of entries in bytes, 0 disables the cache
+        val maxSize: Property<Long>
+    }
+
+    val cache: BundleCache?
+        get() {
+            val maxSize = parameters.maxSize.get()
+            sharedCache.resize(maxSize)
+            return if (maxSize > 0) sharedCache else null
+        }
+
+    companion object {
+        const val NAME = "staticBundleCache"
+
+        const val DEFAULT_MAX_SIZE = 64L shl 20
+
+        private val sharedCache = BundleCache(DEFAULT_MAX_SIZE)
+    }
+}
@@ -2,6 +2,8 @@ package io.github.skykatik.staticbundle.plugin
 
 import org.gradle.api.Action
 import org.gradle.api.model.ObjectFactory
+import org.gradle.api.provider.ListProperty
+import org.gradle.kotlin.dsl.listProperty
 import org.gradle.kotlin.dsl.newInstance
 import javax.inject.Inject
 
@@ -12,6 +14,10 @@ abstract class DefaultSourceSetSettings @Inject constructor(
 
     val settings: MutableList<LocaleSettings> = ArrayList()
 
+    // Parameters of the task are created along with the settings and map their values lazily,
+    // so the task doesn't need the project to create them
+    val localeParameters: ListProperty<LocaleParameters> = objectFactory.listProperty()
+
     override fun getName(): String {
         return name
     }
@@ -22,6 +28,11 @@ abstract class DefaultSourceSetSettings @Inject constructor(
 
     override fun setting(action: Action<in LocaleSettings>) {
         configureAndAdd(settings, action)
+        localeParameters.add(objectFactory.localeParameters(settings.last()))
+    }
+
+    override fun cldrPlurals() {
+        cldrPlurals.set(true)
     }
 
     private inline fun <reified T : Any> configureAndAdd(items: MutableList<T>, action: Action<in T>) {
@@ -30,3 +41,13 @@ abstract class DefaultSourceSetSettings @Inject constructor(
         items.add(item)
     }
 }
+
+private fun ObjectFactory.localeParameters(settings: LocaleSettings) = newInstance<LocaleParameters>().apply {
+    language.set(settings.locale.map { it.language })
+    script.set(settings.locale.map { it.script })
+    country.set(settings.locale.map { it.country })
+    variant.set(settings.locale.map { it.variant })
+    pluralForms.set(settings.pluralForms)
+    pluralFunction.set(settings.pluralFunction)
+    parent.set(settings.parent.map { it.toString() })
+}
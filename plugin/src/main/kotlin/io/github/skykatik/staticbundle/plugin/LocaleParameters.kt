@@ -0,0 +1,35 @@
+package io.github.skykatik.staticbundle.plugin
+
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Optional
+
+// LocaleSettings of the task, where locales are split into their fields, as Locale can't be stored
+// in the configuration cache. Language tags would turn legacy locales into other ones, e.g. no_NO_NY into nn_NO
+interface LocaleParameters {
+
+    @get:Input
+    val language: Property<String>
+
+    @get:Input
+    val script: Property<String>
+
+    @get:Input
+    val country: Property<String>
+
+    @get:Input
+    val variant: Property<String>
+
+    @get:Input
+    @get:Optional
+    val pluralForms: Property<Int>
+
+    @get:Input
+    @get:Optional
+    val pluralFunction: Property<String>
+
+    // Locale.toString() of the parent, which is one of the declared locales
+    @get:Input
+    @get:Optional
+    val parent: Property<String>
+}
@@ -10,4 +10,6 @@ interface LocaleSettings {
     val pluralForms: Property<Int>
 
     val pluralFunction: Property<String>
+
+    val parent: Property<Locale>
 }
@@ -5,4 +5,6 @@ import org.gradle.api.Action
 interface LocaleSettingsSpec {
 
     fun setting(action: Action<in LocaleSettings>)
+
+    fun cldrPlurals()
 }
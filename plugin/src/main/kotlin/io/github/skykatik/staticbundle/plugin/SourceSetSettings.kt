@@ -3,7 +3,6 @@ package io.github.skykatik.staticbundle.plugin
 import org.gradle.api.Action
 import org.gradle.api.Named
 import org.gradle.api.provider.Property
-import java.util.function.Function
 
 interface SourceSetSettings : Named {
 
@@ -11,9 +10,33 @@ interface SourceSetSettings : Named {
 
     val resourceFilenameFormat: Property<String>
 
+    val resourceDirectory: Property<String>
+
+    val resourceGlob: Property<String>
+
     val naming: Property<PropertyNaming>
 
-    val contentTransformer: Property<Function<String, String>>
+    val contentTransformer: Property<ContentTransformer>
+
+    val generationStrategy: Property<GenerationStrategy>
+
+    val appendMethods: Property<Boolean>
+
+    val utf8Methods: Property<Boolean>
+
+    val pluralTableSize: Property<Int>
+
+    val cldrPlurals: Property<Boolean>
+
+    val lazyLocales: Property<Boolean>
+
+    val concatStrategy: Property<ConcatStrategy>
+
+    val inlinePropertyArgs: Property<Boolean>
+
+    val lookupMethods: Property<Boolean>
+
+    val resourceBundles: Property<Boolean>
 
     fun settings(action: Action<in LocaleSettingsSpec>)
 }
@@ -1,12 +1,17 @@
 package io.github.skykatik.staticbundle.plugin
 
 import org.gradle.api.model.ObjectFactory
+import org.gradle.api.provider.Property
 import org.gradle.kotlin.dsl.newInstance
 import javax.inject.Inject
 
 interface StaticBundleExtension {
 
     val sourceSetSettings: SourceSetSettingsContainer
+
+    // Limit of parsed bundles, which are kept in memory of the daemon, in bytes; 0 disables the cache.
+    // The cache is shared by the whole build, so the value of the first project applying the plugin is used
+    val bundleCacheSize: Property<Long>
 }
 
 abstract class DefaultStaticBundleExtension
@@ -15,4 +20,7 @@ abstract class DefaultStaticBundleExtension
 
     override val sourceSetSettings: SourceSetSettingsContainer =
         objectFactory.newInstance<DefaultSourceSetSettingsContainer>()
+
+    override val bundleCacheSize: Property<Long> =
+        objectFactory.property(Long::class.javaObjectType).convention(BundleCacheService.DEFAULT_MAX_SIZE)
 }
@@ -0,0 +1,57 @@
+package io.github.skykatik.staticbundle.plugin
+
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Nested
+
+// Settings of a single generation, which are read by the processor at execution time.
+// They are wired lazily from SourceSetSettings and hold only serializable values
+interface StaticBundleParameters {
+
+    @get:Input
+    val messageSourceClassName: Property<String>
+
+    @get:Input
+    val resourceFilenameFormat: Property<String>
+
+    @get:Nested
+    val naming: Property<PropertyNaming>
+
+    @get:Nested
+    val contentTransformer: Property<ContentTransformer>
+
+    @get:Input
+    val generationStrategy: Property<GenerationStrategy>
+
+    @get:Input
+    val appendMethods: Property<Boolean>
+
+    @get:Input
+    val utf8Methods: Property<Boolean>
+
+    @get:Input
+    val pluralTableSize: Property<Int>
+
+    @get:Input
+    val cldrPlurals: Property<Boolean>
+
+    @get:Input
+    val lazyLocales: Property<Boolean>
+
+    @get:Input
+    val concatStrategy: Property<ConcatStrategy>
+
+    @get:Input
+    val inlinePropertyArgs: Property<Boolean>
+
+    @get:Input
+    val lookupMethods: Property<Boolean>
+
+    @get:Input
+    val resourceBundles: Property<Boolean>
+
+    // In declaration order, the first one is the reference locale
+    @get:Nested
+    val localeSettings: ListProperty<LocaleParameters>
+}
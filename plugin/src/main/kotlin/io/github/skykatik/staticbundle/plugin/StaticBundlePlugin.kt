@@ -7,7 +7,6 @@ import org.gradle.api.plugins.JavaPluginExtension
 import org.gradle.kotlin.dsl.apply
 import org.gradle.kotlin.dsl.getByType
 import org.gradle.kotlin.dsl.register
-import java.util.function.Function
 
 class StaticBundlePlugin : Plugin<Project> {
 
@@ -20,17 +19,56 @@ class StaticBundlePlugin : Plugin<Project> {
         )
 
         val javaExt = project.extensions.getByType<JavaPluginExtension>()
+        val cacheService = project.gradle.sharedServices.registerIfAbsent(
+            BundleCacheService.NAME, BundleCacheService::class.java
+        ) {
+            parameters.maxSize.set(ext.bundleCacheSize)
+        }
 
         ext.sourceSetSettings.all {
             javaExt.sourceSets.named(name) {
+                val sourceSet = this
                 naming.convention(project.provider { PropertyNaming.instance() })
-                contentTransformer.convention(project.provider { Function.identity() })
+                contentTransformer.convention(ContentTransformer.identity())
+                generationStrategy.convention(GenerationStrategy.SWITCH)
+                appendMethods.convention(false)
+                utf8Methods.convention(false)
+                pluralTableSize.convention(0)
+                cldrPlurals.convention(false)
+                lazyLocales.convention(false)
+                concatStrategy.convention(ConcatStrategy.INDY)
+                inlinePropertyArgs.convention(true)
+                lookupMethods.convention(false)
+                resourceBundles.convention(false)
 
                 val sourceSetName = getTaskName("staticBundle", "Processor")
-                val task = project.tasks.register<StaticBundleProcessor>(sourceSetName, this, this@all)
+                val sett = this@all as DefaultSourceSetSettings
+                val task = project.tasks.register<StaticBundleProcessor>(sourceSetName) {
+                    messageSourceClassName.set(sett.messageSourceClassName)
+                    resourceFilenameFormat.set(sett.resourceFilenameFormat)
+                    naming.set(sett.naming)
+                    contentTransformer.set(sett.contentTransformer)
+                    generationStrategy.set(sett.generationStrategy)
+                    appendMethods.set(sett.appendMethods)
+                    utf8Methods.set(sett.utf8Methods)
+                    pluralTableSize.set(sett.pluralTableSize)
+                    cldrPlurals.set(sett.cldrPlurals)
+                    lazyLocales.set(sett.lazyLocales)
+                    concatStrategy.set(sett.concatStrategy)
+                    inlinePropertyArgs.set(sett.inlinePropertyArgs)
+                    lookupMethods.set(sett.lookupMethods)
+                    resourceBundles.set(sett.resourceBundles)
+                    localeSettings.set(sett.localeParameters)
+
+                    resourceDir.from(project.provider { sourceSet.resources.matching { include(bundlePattern(sett)) } })
+                    codegenDir.convention(project.layout.buildDirectory.dir("generated/sources/codegen/java/${sourceSet.name}"))
+                    modelFile.convention(project.layout.buildDirectory.file("staticBundle/${sourceSet.name}/model.bin"))
+                    bundleCache.set(cacheService)
+                    usesService(cacheService)
+                }
 
                 task.configure {
-                    java.srcDir(codegenDir)
+                    sourceSet.java.srcDir(codegenDir)
                 }
 
                 project.tasks.named(compileJavaTaskName) {
@@ -40,3 +78,10 @@ class StaticBundlePlugin : Plugin<Project> {
         }
     }
 }
+
+// Pattern relative to resource directories, e.g. '**/messages*.properties' or 'i18n/messages*.properties'
+private fun bundlePattern(sett: SourceSetSettings): String {
+    val glob = sett.resourceGlob.orNull ?: sett.resourceFilenameFormat.get().replace("{locale}", "*")
+    val directory = sett.resourceDirectory.orNull?.trim('/')
+    return if (directory.isNullOrEmpty()) "**/$glob" else "$directory/$glob"
+}
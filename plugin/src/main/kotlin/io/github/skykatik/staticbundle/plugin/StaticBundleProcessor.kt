@@ -1,44 +1,75 @@
 package io.github.skykatik.staticbundle.plugin
 
-import io.github.skykatik.staticbundle.gen.StaticBundleProcessor
 import org.gradle.api.DefaultTask
 import org.gradle.api.file.ConfigurableFileCollection
 import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.ProjectLayout
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.Property
 import org.gradle.api.tasks.*
-import org.gradle.work.DisableCachingByDefault
+import org.gradle.work.InputChanges
 import org.gradle.work.NormalizeLineEndings
+import org.gradle.workers.WorkerExecutor
 import javax.inject.Inject
 
-@DisableCachingByDefault(because = "Not worth caching")
-abstract class StaticBundleProcessor @Inject constructor(
-    sourceSet: SourceSet,
-    private val sett: DefaultSourceSetSettings
-) : DefaultTask() {
+// Neither the project nor the settings are referenced at execution time,
+// so the task is compatible with the configuration cache
+@CacheableTask
+abstract class StaticBundleProcessor : DefaultTask(), StaticBundleParameters {
 
+    // Only bundle files are inputs, so other resources neither affect up-to-date checks nor are looked through
     @get:SkipWhenEmpty
     @get:IgnoreEmptyDirectories
     @get:NormalizeLineEndings
     @get:PathSensitive(PathSensitivity.RELATIVE)
     @get:InputFiles
-    val resourceDir: ConfigurableFileCollection = project.files(sourceSet.resources)
+    abstract val resourceDir: ConfigurableFileCollection
 
     @get:OutputDirectory
     abstract val codegenDir: DirectoryProperty
 
-    init {
-        codegenDir.convention(project.layout.buildDirectory.dir("generated/sources/codegen/java/${sourceSet.name}"))
-    }
+    // Parsed bundles of the previous run, which are only parsed again when they change
+    @get:LocalState
+    abstract val modelFile: RegularFileProperty
+
+    @get:Internal
+    abstract val bundleCache: Property<BundleCacheService>
+
+    @get:Inject
+    abstract val layout: ProjectLayout
+
+    @get:Inject
+    abstract val workerExecutor: WorkerExecutor
 
     @TaskAction
-    fun run() {
-        val codegenDir = codegenDir.get()
-        val gen = StaticBundleProcessor(
-            project,
-            codegenDir,
-            resourceDir,
-            sett
-        )
-        gen.validate()
-        gen.generate()
+    fun run(inputChanges: InputChanges) {
+        val task = this
+        workerExecutor.noIsolation().submit(StaticBundleWorkAction::class.java) {
+            messageSourceClassName.set(task.messageSourceClassName)
+            resourceFilenameFormat.set(task.resourceFilenameFormat)
+            naming.set(task.naming)
+            contentTransformer.set(task.contentTransformer)
+            generationStrategy.set(task.generationStrategy)
+            appendMethods.set(task.appendMethods)
+            utf8Methods.set(task.utf8Methods)
+            pluralTableSize.set(task.pluralTableSize)
+            cldrPlurals.set(task.cldrPlurals)
+            lazyLocales.set(task.lazyLocales)
+            concatStrategy.set(task.concatStrategy)
+            inlinePropertyArgs.set(task.inlinePropertyArgs)
+            lookupMethods.set(task.lookupMethods)
+            resourceBundles.set(task.resourceBundles)
+            localeSettings.set(task.localeSettings)
+
+            projectDir.set(layout.projectDirectory)
+            resources.from(resourceDir)
+            codegenDir.set(task.codegenDir)
+            modelFile.set(task.modelFile)
+            bundleCache.set(task.bundleCache)
+            incremental.set(inputChanges.isIncremental)
+            if (inputChanges.isIncremental) {
+                changedFiles.set(inputChanges.getFileChanges(resourceDir).map { it.file })
+            }
+        }
     }
 }
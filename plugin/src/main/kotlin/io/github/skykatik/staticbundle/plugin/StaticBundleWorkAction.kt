@@ -0,0 +1,49 @@
+package io.github.skykatik.staticbundle.plugin
+
+import io.github.skykatik.staticbundle.gen.StaticBundleProcessor
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.logging.Logging
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+import java.io.File
+
+interface StaticBundleWorkParameters : StaticBundleParameters, WorkParameters {
+
+    val projectDir: DirectoryProperty
+
+    val resources: ConfigurableFileCollection
+
+    val codegenDir: DirectoryProperty
+
+    val modelFile: RegularFileProperty
+
+    // Bundles are parsed again only for changed files of incremental runs
+    val incremental: Property<Boolean>
+
+    val changedFiles: ListProperty<File>
+
+    val bundleCache: Property<BundleCacheService>
+}
+
+// Parses, validates and generates a single message source off the task thread,
+// so tasks of other source sets and projects run concurrently with it
+abstract class StaticBundleWorkAction : WorkAction<StaticBundleWorkParameters> {
+
+    override fun execute() {
+        val gen = StaticBundleProcessor(
+            parameters.projectDir.get().asFile.toPath(),
+            parameters.codegenDir.get(),
+            parameters.resources,
+            parameters,
+            parameters.bundleCache.get().cache
+        )
+        val changedFiles = if (parameters.incremental.get()) parameters.changedFiles.get() else null
+        gen.validate(parameters.modelFile.get().asFile.toPath(), changedFiles)
+        gen.generate()
+        Logging.getLogger(StaticBundleWorkAction::class.java).lifecycle(gen.summary())
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArmCollapsingTest {
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture(String name, GenerationStrategy strategy) throws IOException {
+        var fixture = new ProcessorFixture(projectDir.resolve(name))
+                .locale(Locale.ROOT, 1, "0")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .locale(Locale.FRENCH, 2, "value <= 1 ? 0 : 1")
+                .bundle(Locale.ROOT,
+                        "greeting = Привет, {0:name}!",
+                        "brand = StaticBundle",
+                        "file[0] = {0:amount:long} файл")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "brand = StaticBundle",
+                        "file[0] = {amount} file",
+                        "file[1] = {amount} files")
+                .bundle(Locale.FRENCH,
+                        "greeting = Hello, {name}!",
+                        "brand = StaticBundle",
+                        "file[0] = {amount} file",
+                        "file[1] = {amount} files");
+        fixture.settings.getGenerationStrategy().set(strategy);
+        return fixture;
+    }
+
+    @Test
+    void collapsesIdenticalSwitchArms() throws IOException {
+        var fixture = fixture("switch", GenerationStrategy.SWITCH);
+        var messages = fixture.compile();
+        String source = fixture.generate();
+
+        assertTrue(ProcessorFixture.method(source, "String greeting(").contains("case EN, FR ->"), source);
+        assertTrue(ProcessorFixture.method(source, "String file(").contains("case EN, FR ->"), source);
+        assertFalse(ProcessorFixture.method(source, "String brand(").contains("switch"), source);
+
+        assertEquals("Hello, Ann!", messages.get("FR", "greeting", "Ann"));
+        assertEquals("StaticBundle", messages.get("EN", "brand"));
+        // Plural forms of the shared arm are still selected by the function of each locale
+        assertEquals("0 files", messages.get("EN", "file", 0L));
+        assertEquals("0 file", messages.get("FR", "file", 0L));
+    }
+
+    @Test
+    void implementsSharedMethodsInBaseClass() throws IOException {
+        var fixture = fixture("subclass", GenerationStrategy.SUBCLASS);
+        var messages = fixture.compile();
+        String source = fixture.generate();
+
+        assertFalse(ProcessorFixture.method(source, "String brand(").contains("abstract"), source);
+        assertEquals(source.indexOf("String brand("), source.lastIndexOf("String brand("), source);
+        // Differing method is declared abstract and overridden by each locale
+        assertEquals(4, source.split("String greeting\\(", -1).length - 1, source);
+
+        assertEquals("StaticBundle", messages.get("FR", "brand"));
+        assertEquals("Hello, Ann!", messages.get("FR", "greeting", "Ann"));
+        assertEquals("Привет, Ann!", messages.get("ROOT", "greeting", "Ann"));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BundleCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    ProcessorFixture fixture(String name, BundleCache cache) throws IOException {
+        var fixture = new ProcessorFixture(tempDir.resolve(name))
+                .locale(Locale.ROOT, 1, "0")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .bundle(Locale.ROOT,
+                        "greeting = Hi, {0:name}!",
+                        "file[0] = {0:amount:long} file")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "file[0] = {amount} file",
+                        "file[1] = {amount} files");
+        fixture.cache = cache;
+        return fixture;
+    }
+
+    @Test
+    void projectsWithSameBundlesShareModel() throws IOException {
+        var cache = new BundleCache(1 << 20);
+        var first = fixture("first", cache);
+        var second = fixture("second", cache);
+
+        assertFalse(first.process(null, null).summary().contains("taken from cache"));
+        var gen = second.process(null, null);
+        assertTrue(gen.summary().contains("parsed bundles are taken from cache"), gen.summary());
+        assertEquals(Files.readString(first.sourceFile()), Files.readString(second.sourceFile()));
+    }
+
+    @Test
+    void changedBundleMissesCache() throws IOException {
+        var cache = new BundleCache(1 << 20);
+        fixture("first", cache).process(null, null);
+        var second = fixture("second", cache)
+                .bundle(Locale.ENGLISH,
+                        "greeting = Good day, {name}!",
+                        "file[0] = {amount} file",
+                        "file[1] = {amount} files");
+
+        var gen = second.process(null, null);
+        assertFalse(gen.summary().contains("taken from cache"), gen.summary());
+        assertTrue(Files.readString(second.sourceFile()).contains("Good day, "));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        var cache = new BundleCache(3 * (BundleCache.ENTRY_OVERHEAD + 4));
+        cache.putModel(key("a"), new byte[4]);
+        cache.putModel(key("b"), new byte[4]);
+        cache.putModel(key("c"), new byte[4]);
+        assertNotNull(cache.model(key("a")));
+
+        cache.putModel(key("d"), new byte[4]);
+        assertNull(cache.model(key("b")));
+        assertNotNull(cache.model(key("a")));
+        assertNotNull(cache.model(key("c")));
+        assertNotNull(cache.model(key("d")));
+    }
+
+    @Test
+    void skipsEntriesLargerThanLimit() {
+        var cache = new BundleCache(BundleCache.ENTRY_OVERHEAD);
+        cache.putProperties("hash", Map.of("greeting", "Hello"));
+        assertNull(cache.properties("hash"));
+    }
+
+    @Test
+    void shrinksOnResize() {
+        var cache = new BundleCache(1 << 20);
+        cache.putModel(key("a"), new byte[4]);
+        cache.putModel(key("b"), new byte[4]);
+
+        cache.resize(BundleCache.ENTRY_OVERHEAD + 4);
+        assertEquals(BundleCache.ENTRY_OVERHEAD + 4, cache.maxSize());
+        assertNull(cache.model(key("a")));
+        assertNotNull(cache.model(key("b")));
+
+        cache.resize(0);
+        assertNull(cache.model(key("b")));
+        assertEquals(0, cache.size);
+    }
+
+    static BundleCache.ModelKey key(String locale) {
+        return new BundleCache.ModelKey(List.of(locale), List.of(), null);
+    }
+}
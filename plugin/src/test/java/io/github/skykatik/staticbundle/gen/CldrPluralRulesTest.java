@@ -0,0 +1,79 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CldrPluralRulesTest {
+
+    static final Locale RUSSIAN = new Locale("ru");
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void selectsFormsOfIntegralAndFractionalAmounts() throws IOException {
+        var messages = new ProcessorFixture(projectDir)
+                .locale(RUSSIAN)
+                .locale(Locale.ENGLISH)
+                .bundle(RUSSIAN,
+                        "minutes[0] = {0:amount:long} минута",
+                        "minutes[1] = {amount} минуты",
+                        "minutes[2] = {amount} минут",
+                        "minutes[3] = {amount} минуты")
+                .bundle(Locale.ENGLISH,
+                        "minutes[0] = {amount} minute",
+                        "minutes[1] = {amount} minutes")
+                .compile();
+
+        assertEquals(0, messages.pluralForm("RU", 21L));
+        assertEquals(1, messages.pluralForm("RU", 3L));
+        assertEquals(2, messages.pluralForm("RU", 11L));
+        assertEquals(3, messages.pluralForm("RU", 1.5));
+        assertEquals(0, messages.pluralForm("EN", 1.0));
+        assertEquals(1, messages.pluralForm("EN", new BigDecimal("1.0")));
+
+        assertEquals("1.5 минуты", messages.get("RU", "minutes", 1.5));
+        assertEquals("2 minutes", messages.get("EN", "minutes", new BigDecimal("2")));
+    }
+
+    @Test
+    void omitsFractionalOverloadsWithHandWrittenFunctions() throws IOException {
+        var messages = new ProcessorFixture(projectDir)
+                .locale(RUSSIAN)
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .bundle(RUSSIAN,
+                        "minutes[0] = {0:amount:long} минута",
+                        "minutes[1] = {amount} минуты",
+                        "minutes[2] = {amount} минут",
+                        "minutes[3] = {amount} минуты")
+                .bundle(Locale.ENGLISH,
+                        "minutes[0] = {amount} minute",
+                        "minutes[1] = {amount} minutes")
+                .compile();
+
+        assertEquals(2, messages.pluralForm("RU", 5L));
+        assertThrows(NoSuchMethodException.class, () -> messages.type().getMethod("pluralForm", double.class));
+        assertThrows(NoSuchMethodException.class, () -> messages.type().getMethod("minutes", BigDecimal.class));
+    }
+
+    @Test
+    void rejectsLanguagesWithoutRules() {
+        var e = assertThrows(IllegalStateException.class, () -> CldrPluralRules.forLocale(new Locale("xx")));
+        assertTrue(e.getMessage().contains("'xx'"), e.getMessage());
+    }
+
+    @Test
+    void hasOnlyOtherFormWithoutCategories() {
+        assertEquals(1, CldrPluralRules.forLocale(Locale.ROOT).formCount());
+        assertEquals(1, CldrPluralRules.forLocale(Locale.JAPANESE).formCount());
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstantArgsTest {
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture() throws IOException {
+        return new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .bundle(Locale.ROOT,
+                        "eager = Eager ${const java.util.UUID.randomUUID()}",
+                        "lazy = Lazy ${const lazy java.util.UUID.randomUUID()}",
+                        "code = Code ${java.util.UUID.randomUUID()}",
+                        "reference = Reference: #{eager}");
+    }
+
+    @Test
+    void evaluatesConstantCodeOnce() throws IOException {
+        var messages = fixture().compile();
+
+        assertEquals(messages.get("ROOT", "eager"), messages.get("ROOT", "eager"));
+        assertEquals(messages.get("ROOT", "lazy"), messages.get("ROOT", "lazy"));
+        assertNotEquals(messages.get("ROOT", "code"), messages.get("ROOT", "code"));
+    }
+
+    @Test
+    void splicesConstantCodeIntoReferences() throws IOException {
+        var fixture = fixture();
+        var messages = fixture.compile();
+
+        assertEquals("Reference: " + messages.get("ROOT", "eager"), messages.get("ROOT", "reference"));
+        String source = fixture.generate();
+        assertTrue(source.contains("private static final class LazyConstant"), source);
+        assertFalse(ProcessorFixture.method(source, "String reference(").contains("eager("), source);
+    }
+}
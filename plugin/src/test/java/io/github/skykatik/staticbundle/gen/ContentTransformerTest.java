@@ -0,0 +1,38 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.ContentTransformer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContentTransformerTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void transformsTextsBetweenArguments() throws IOException {
+        var fixture = new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .locale(Locale.ENGLISH, 1, "0")
+                .bundle(Locale.ROOT, "greeting = Привет,\\u00A0{0:name}\\u00A0!")
+                .bundle(Locale.ENGLISH, "greeting = Hello,\\u00A0{name}!");
+        fixture.settings.getContentTransformer().set(ContentTransformer.replace("\u00A0", " "));
+        var messages = fixture.compile();
+
+        assertEquals("Привет, a\u00A0b !", messages.get("ROOT", "greeting", "a\u00A0b"));
+        assertEquals("Привет, a b !", messages.get("ROOT", "greeting", "a b"));
+        assertEquals("Hello, Ann!", messages.get("EN", "greeting", "Ann"));
+    }
+
+    @Test
+    void rejectsEmptyTarget() {
+        assertThrows(IllegalArgumentException.class, () -> ContentTransformer.replace("", " "));
+    }
+}
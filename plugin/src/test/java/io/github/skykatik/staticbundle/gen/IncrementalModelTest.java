@@ -0,0 +1,113 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalModelTest {
+
+    static final Locale RUSSIAN = new Locale("ru");
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture() throws IOException {
+        return new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .locale(RUSSIAN, 3, "value % 10 == 1 && value % 100 != 11 ? 0 : " +
+                        "value % 10 >= 2 && value % 10 <= 4 && (value % 100 < 10 || value % 100 >= 20) ? 1 : 2")
+                .bundle(Locale.ROOT,
+                        "greeting = Hi, {0:name}!",
+                        "file[0] = {0:amount:long} file")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "file[0] = {amount} file",
+                        "file[1] = {amount} files")
+                .bundle(RUSSIAN,
+                        "greeting = Привет, {name}!",
+                        "file[0] = {amount} файл",
+                        "file[1] = {amount} файла",
+                        "file[2] = {amount} файлов");
+    }
+
+    Path modelFile() {
+        return projectDir.resolve("build/staticBundle/main/model.bin");
+    }
+
+    // Source of a full run over the same bundles, which doesn't touch the model of incremental runs
+    String fullSource(ProcessorFixture fixture) throws IOException {
+        fixture.process(projectDir.resolve("build/full/model.bin"), null);
+        return Files.readString(fixture.sourceFile());
+    }
+
+    @Test
+    void parsesOnlyChangedLocales() throws IOException {
+        var fixture = fixture();
+        assertEquals(3, fixture.process(modelFile(), null).parsedLocales);
+        assertTrue(Files.isRegularFile(modelFile()));
+
+        fixture.bundle(Locale.ENGLISH,
+                "greeting = Good day, {name}!",
+                "file[0] = {amount} file",
+                "file[1] = {amount} files");
+        var gen = fixture.process(modelFile(), List.of(fixture.bundleFile(Locale.ENGLISH).toFile()));
+        String incremental = Files.readString(fixture.sourceFile());
+
+        assertEquals(1, gen.parsedLocales);
+        assertTrue(incremental.contains("Good day, "), incremental);
+        assertTrue(incremental.contains("Привет, "), incremental);
+        assertEquals(fullSource(fixture), incremental);
+    }
+
+    @Test
+    void takesUnchangedLocalesFromModel() throws IOException {
+        var fixture = fixture();
+        fixture.process(modelFile(), null);
+
+        // Files not reported as changed are not read again
+        fixture.bundle(RUSSIAN,
+                "greeting = Здравствуйте, {name}!",
+                "file[0] = {amount} файл",
+                "file[1] = {amount} файла",
+                "file[2] = {amount} файлов");
+        assertEquals(0, fixture.process(modelFile(), List.of()).parsedLocales);
+        String source = Files.readString(fixture.sourceFile());
+
+        assertTrue(source.contains("Привет, "), source);
+    }
+
+    @Test
+    void parsesEverythingWhenReferenceBundleChanges() throws IOException {
+        var fixture = fixture();
+        fixture.process(modelFile(), null);
+
+        fixture.bundle(Locale.ROOT,
+                "greeting = Hey, {0:name}!",
+                "file[0] = {0:amount:long} file");
+        var gen = fixture.process(modelFile(), List.of(fixture.bundleFile(Locale.ROOT).toFile()));
+
+        assertEquals(3, gen.parsedLocales);
+        assertEquals(fullSource(fixture), Files.readString(fixture.sourceFile()));
+    }
+
+    @Test
+    void parsesEverythingWithUnreadableModel() throws IOException {
+        var fixture = fixture();
+        fixture.process(modelFile(), null);
+        Files.write(modelFile(), new byte[]{1, 2, 3});
+
+        var gen = fixture.process(modelFile(), List.of(fixture.bundleFile(RUSSIAN).toFile()));
+
+        assertEquals(3, gen.parsedLocales);
+        assertEquals(fullSource(fixture), Files.readString(fixture.sourceFile()));
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InlinePropertyArgsTest {
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture(String... lines) throws IOException {
+        return new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .bundle(Locale.ROOT, lines);
+    }
+
+    @Test
+    void rejectsIndirectCycles() throws IOException {
+        var fixture = fixture(
+                "a = A#{b}",
+                "b = B#{c}",
+                "c = C#{a}");
+
+        var e = assertThrows(IllegalStateException.class, fixture::generate);
+        assertTrue(e.getMessage().contains("Recursive property argument: a -> b -> c -> a"), e.getMessage());
+    }
+
+    @Test
+    void inlinesSharedPropertyOfDiamond() throws IOException {
+        var fixture = fixture(
+                "top = #{left} #{right}",
+                "left = L#{base}",
+                "right = R#{base}",
+                "base = base");
+        var messages = fixture.compile();
+
+        assertEquals("Lbase Rbase", messages.get("ROOT", "top"));
+        String top = ProcessorFixture.method(fixture.generate(), "String top(");
+        assertFalse(top.contains("left("), top);
+        assertFalse(top.contains("base("), top);
+    }
+
+    @Test
+    void splicesArgumentsOfParameterizedProperty() throws IOException {
+        var fixture = fixture(
+                "greeting = Hello, {0:name} from {1:place}!",
+                "visit = {0:user}: #{greeting(user, city)} ({1:city})");
+        var messages = fixture.compile();
+
+        assertEquals("Bob: Hello, Bob from Paris! (Paris)", messages.get("ROOT", "visit", "Bob", "Paris"));
+        String visit = ProcessorFixture.method(fixture.generate(), "String visit(");
+        assertFalse(visit.contains("greeting("), visit);
+    }
+
+    @Test
+    void keepsCallsWhenDisabled() throws IOException {
+        var fixture = fixture(
+                "greeting = Hello, {0:name}!",
+                "visit = #{greeting(user)} {0:user}");
+        fixture.settings.getInlinePropertyArgs().set(false);
+        var messages = fixture.compile();
+
+        assertEquals("Hello, Bob! Bob", messages.get("ROOT", "visit", "Bob"));
+        assertTrue(ProcessorFixture.method(fixture.generate(), "String visit(").contains("greeting("));
+    }
+}
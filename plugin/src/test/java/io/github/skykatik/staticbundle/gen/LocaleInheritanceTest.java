@@ -0,0 +1,97 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocaleInheritanceTest {
+
+    static final Locale BRITISH = Locale.UK;
+    static final Locale AUSTRALIAN = new Locale("en", "AU");
+
+    @TempDir
+    Path projectDir;
+
+    static void child(ProcessorFixture fixture, Locale locale, Locale parent) {
+        fixture.settings.setting(s -> {
+            s.getLocale().set(locale);
+            s.getPluralForms().set(2);
+            s.getPluralFunction().set("value == 1 ? 0 : 1");
+            s.getParent().set(parent);
+        });
+    }
+
+    ProcessorFixture fixture(String name, GenerationStrategy strategy) throws IOException {
+        var fixture = new ProcessorFixture(projectDir.resolve(name))
+                .locale(Locale.ROOT, 1, "0")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .bundle(Locale.ROOT,
+                        "greeting = Привет, {0:name}!",
+                        "colour = цвет",
+                        "unit = штука",
+                        "file[0] = {0:amount:long} #{unit}")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "colour = color",
+                        "unit = item",
+                        "file[0] = one #{unit}",
+                        "file[1] = {amount} #{unit}s")
+                .bundle(BRITISH,
+                        "colour = colour",
+                        "unit = piece");
+        // Australian bundle is absent, so everything comes from the chain en_AU -> en_GB -> en
+        child(fixture, AUSTRALIAN, BRITISH);
+        child(fixture, BRITISH, Locale.ENGLISH);
+        fixture.settings.getGenerationStrategy().set(strategy);
+        return fixture;
+    }
+
+    void assertInherited(ProcessorFixture.Messages messages) {
+        for (String tag : new String[]{"EN_GB", "EN_AU"}) {
+            assertEquals("Hello, Ann!", messages.get(tag, "greeting", "Ann"));
+            assertEquals("colour", messages.get(tag, "colour"));
+            // Inherited plural forms refer to the overridden property of the locale
+            assertEquals("one piece", messages.get(tag, "file", 1L));
+            assertEquals("3 pieces", messages.get(tag, "file", 3L));
+        }
+        assertEquals("color", messages.get("EN", "colour"));
+        assertEquals("3 items", messages.get("EN", "file", 3L));
+    }
+
+    @Test
+    void inheritsMissingPropertiesWithSwitch() throws IOException {
+        assertInherited(fixture("switch", GenerationStrategy.SWITCH).compile());
+    }
+
+    @Test
+    void extendsParentSubclass() throws IOException {
+        var fixture = fixture("subclass", GenerationStrategy.SUBCLASS);
+        var messages = fixture.compile();
+        assertInherited(messages);
+
+        String source = fixture.generate();
+        assertTrue(source.contains("private static sealed class En extends Messages"), source);
+        assertTrue(source.contains("private static final class EnAu extends EnGb"), source);
+        String australian = source.substring(source.indexOf("class EnAu"));
+        assertFalse(australian.substring(0, australian.indexOf("\n    }")).contains("String colour("), australian);
+    }
+
+    @Test
+    void rejectsUndeclaredParents() throws IOException {
+        var fixture = new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .bundle(Locale.ROOT, "greeting = Привет");
+        child(fixture, BRITISH, Locale.ENGLISH);
+
+        assertThrows(IllegalStateException.class, fixture::generate);
+    }
+}
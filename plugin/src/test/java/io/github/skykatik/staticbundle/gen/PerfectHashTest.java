@@ -0,0 +1,87 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PerfectHashTest {
+
+    @TempDir
+    Path projectDir;
+
+    static List<String> keys(int count) {
+        var keys = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            keys.add("messages.key" + i);
+        }
+        // Keys with equal hashCode() share a bucket
+        keys.addAll(List.of("Aa", "BB", "AaAa", "AaBB", "BBAa", "BBBB", "", "ключ"));
+        return keys;
+    }
+
+    // Seeds are built with the copy of hash functions, but generated code looks keys up with the class of core
+    @Test
+    void matchesRuntimeLookup() {
+        for (int count : new int[]{0, 1, 2, 63, 64, 1000, 20000}) {
+            var keys = keys(count);
+            var hash = PerfectHash.build(keys);
+            var runtime = new io.github.skykatik.staticbundle.PerfectHash(hash.salt, hash.keys, new String(hash.seeds));
+
+            var slots = new HashSet<Integer>();
+            for (String key : keys) {
+                int slot = runtime.indexOf(key);
+                assertEquals(key, runtime.key(slot));
+                assertEquals(hash.indexOf(key), slot);
+                slots.add(slot);
+            }
+            assertEquals(keys.size(), slots.size());
+            assertEquals(keys.size(), runtime.size());
+
+            assertEquals(-1, runtime.indexOf("messages.missing"));
+            assertEquals(-1, runtime.indexOf("messages.key" + count));
+        }
+    }
+
+    @Test
+    void findsKeysOfEmptyHash() {
+        var hash = PerfectHash.build(List.of());
+        var runtime = new io.github.skykatik.staticbundle.PerfectHash(hash.salt, hash.keys, new String(hash.seeds));
+
+        assertEquals(-1, runtime.indexOf("key"));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() {
+        assertThrows(IllegalArgumentException.class, () -> PerfectHash.build(List.of("a", "b", "a")));
+    }
+
+    @Test
+    void looksUpGeneratedMessages() throws IOException {
+        var lines = new ArrayList<String>();
+        lines.add("greeting = Hello, {0:name}!");
+        for (int i = 0; i < 300; i++) {
+            lines.add("key" + i + " = value" + i);
+        }
+        var fixture = new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .bundle(Locale.ROOT, lines.toArray(String[]::new));
+        fixture.settings.getLookupMethods().set(true);
+        var messages = fixture.compile();
+
+        for (int i = 0; i < 300; i++) {
+            assertEquals("value" + i, messages.get("ROOT", "message", "key" + i));
+        }
+        assertEquals("Hello, Ann!", messages.invoke("ROOT", String.class, "message", "greeting", new Object[]{"Ann"}));
+        assertNull(messages.get("ROOT", "message", "missing"));
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.skykatik.staticbundle.gen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PluralTableTest {
+
+    static final int SIZE = 256;
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture.Messages compile(String name, int pluralForms, String pluralFunction, int tableSize) throws IOException {
+        var fixture = new ProcessorFixture(projectDir.resolve(name))
+                .locale(Locale.ROOT, pluralForms, pluralFunction)
+                .bundle(Locale.ROOT, "key = value");
+        fixture.settings.getPluralTableSize().set(tableSize);
+        return fixture.compile();
+    }
+
+    // Without the table pluralForm(long) returns the result of plural function compiled by javac
+    void assertTableMatchesFunction(String name, int pluralForms, String pluralFunction) throws IOException {
+        var table = compile(name + "-table", pluralForms, pluralFunction, SIZE);
+        var function = compile(name + "-function", pluralForms, pluralFunction, 0);
+
+        for (long value = 0; value < SIZE + 16; value++) {
+            assertEquals(function.pluralForm("ROOT", value), table.pluralForm("ROOT", value), pluralFunction + " of " + value);
+        }
+    }
+
+    @Test
+    void matchesSlavicPluralFunction() throws IOException {
+        assertTableMatchesFunction("slavic", 3, "value % 10 == 1 && value % 100 != 11 ? 0 : " +
+                "value % 10 >= 2 && value % 10 <= 4 && (value % 100 < 10 || value % 100 >= 20) ? 1 : 2");
+    }
+
+    @Test
+    void followsPrecedenceOfOperators() throws IOException {
+        assertTableMatchesFunction("precedence", 3, "value / 10 % 10 == 1 || value - value / 7 * 7 == 3 ? 1 : " +
+                "!(value % 3 != 0) && -value % 4 == -1 ? 2 : 0");
+    }
+
+    @Test
+    void overflowsIntArithmetic() throws IOException {
+        assertTableMatchesFunction("int", 2, "(int) value * 100000000 < 0 ? 1 : 0");
+        assertTableMatchesFunction("sum", 2, "2147483647 + (int) value < 0 ? 1 : 0");
+        assertTableMatchesFunction("long", 2, "value * 100000000 < 0 || 100000000L * (int) value < 0 ? 1 : 0");
+    }
+}
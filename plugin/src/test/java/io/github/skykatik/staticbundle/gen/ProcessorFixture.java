@@ -0,0 +1,203 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.DefaultSourceSetSettings;
+import io.github.skykatik.staticbundle.plugin.StaticBundleExtension;
+import io.github.skykatik.staticbundle.plugin.StaticBundlePlugin;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// A throwaway project with bundles in src/main/resources. Its message source is generated
+// by the processor of the registered task and compiled against the classes of core
+final class ProcessorFixture {
+
+    static final String CLASS_NAME = "test.Messages";
+
+    final Path projectDir;
+    final Project project;
+    final DefaultSourceSetSettings settings;
+    // Shared with other fixtures as the build service does, null disables caching
+    BundleCache cache;
+
+    ProcessorFixture(Path projectDir) {
+        this.projectDir = projectDir;
+
+        project = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build();
+        project.getPluginManager().apply(StaticBundlePlugin.class);
+
+        var ext = project.getExtensions().getByType(StaticBundleExtension.class);
+        settings = (DefaultSourceSetSettings) ext.getSourceSetSettings().create("main");
+        settings.getMessageSourceClassName().set(CLASS_NAME);
+        settings.getResourceFilenameFormat().set("messages{locale}.properties");
+    }
+
+    // Locale, whose plural forms are selected by CLDR rules
+    ProcessorFixture locale(Locale locale) {
+        settings.cldrPlurals();
+        settings.setting(s -> s.getLocale().set(locale));
+        return this;
+    }
+
+    ProcessorFixture locale(Locale locale, int pluralForms, String pluralFunction) {
+        settings.setting(s -> {
+            s.getLocale().set(locale);
+            s.getPluralForms().set(pluralForms);
+            s.getPluralFunction().set(pluralFunction);
+        });
+        return this;
+    }
+
+    ProcessorFixture bundle(Locale locale, String... lines) throws IOException {
+        Path file = bundleFile(locale);
+        Files.createDirectories(file.getParent());
+        Files.write(file, List.of(lines));
+        return this;
+    }
+
+    Path bundleFile(Locale locale) {
+        String suffix = locale.equals(Locale.ROOT) ? "" : "_" + locale;
+        return projectDir.resolve("src/main/resources/messages" + suffix + ".properties");
+    }
+
+    // Validates the bundles and returns the generated source
+    String generate() throws IOException {
+        process(null, null);
+        return Files.readString(sourceFile());
+    }
+
+    // Runs the processor as the task does, incrementally when changed files are given
+    StaticBundleProcessor process(Path modelFile, Collection<File> changedFiles) throws IOException {
+        var task = task();
+        var gen = new StaticBundleProcessor(projectDir, task.getCodegenDir().get(), task.getResourceDir(), task, cache);
+        gen.validate(modelFile, changedFiles);
+        gen.generate();
+        return gen;
+    }
+
+    Messages compile() throws IOException {
+        generate();
+
+        Path classes = projectDir.resolve("build/classes");
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(codegenDir())) {
+            sources = files.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var output = new StringWriter();
+        try (var fileManager = compiler.getStandardFileManager(null, null, null)) {
+            var options = List.of("-encoding", "UTF-8", "-d", classes.toString(),
+                    "-cp", System.getProperty("java.class.path"));
+            boolean compiled = compiler.getTask(output, fileManager, null, options, null,
+                    fileManager.getJavaFileObjectsFromPaths(sources)).call();
+            assertTrue(compiled, output::toString);
+        }
+
+        var loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+        try {
+            return new Messages(loader.loadClass(CLASS_NAME));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Declaration and body of the first method with the signature in the generated source
+    static String method(String source, String signature) {
+        int start = source.indexOf(signature);
+        assertTrue(start != -1, signature);
+        return source.substring(start, source.indexOf("\n    }", start));
+    }
+
+    io.github.skykatik.staticbundle.plugin.StaticBundleProcessor task() {
+        return (io.github.skykatik.staticbundle.plugin.StaticBundleProcessor) project.getTasks()
+                .getByName("staticBundleProcessor");
+    }
+
+    Path codegenDir() {
+        return task().getCodegenDir().get().getAsFile().toPath();
+    }
+
+    Path sourceFile() {
+        Directory codegenDir = task().getCodegenDir().get();
+        return codegenDir.file(CLASS_NAME.replace('.', '/') + ".java").getAsFile().toPath();
+    }
+
+    // The compiled message source, whose accessors are called by name
+    record Messages(Class<?> type) {
+
+        Object forTag(String tag) {
+            try {
+                Class<?> localeTagType = type.getClassLoader().loadClass(CLASS_NAME + "$LocaleTag");
+                return type.getMethod("forTag", localeTagType).invoke(null, localeTagType.getField(tag).get(null));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String get(String tag, String methodName, Object... args) {
+            return (String) invoke(tag, String.class, methodName, args);
+        }
+
+        int pluralForm(String tag, Object value) {
+            return (int) invoke(tag, int.class, "pluralForm", value);
+        }
+
+        Object invoke(String tag, Class<?> returnType, String methodName, Object... args) {
+            Object source = forTag(tag);
+            for (Method method : type.getMethods()) {
+                if (method.getName().equals(methodName) && method.getReturnType() == returnType &&
+                        accepts(method.getParameterTypes(), args)) {
+                    try {
+                        return method.invoke(source, args);
+                    } catch (InvocationTargetException e) {
+                        throw new IllegalStateException(e.getCause());
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            return fail("No method " + methodName + Arrays.toString(args));
+        }
+
+        static boolean accepts(Class<?>[] types, Object[] args) {
+            if (types.length != args.length) {
+                return false;
+            }
+            for (int i = 0; i < types.length; i++) {
+                Class<?> type = types[i].isPrimitive() ? boxed(types[i]) : types[i];
+                if (!type.isInstance(args[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static Class<?> boxed(Class<?> type) {
+            return type == long.class ? Long.class
+                    : type == int.class ? Integer.class
+                    : type == double.class ? Double.class
+                    : type == boolean.class ? Boolean.class
+                    : type;
+        }
+    }
+}
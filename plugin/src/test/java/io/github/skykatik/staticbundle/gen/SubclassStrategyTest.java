@@ -0,0 +1,60 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubclassStrategyTest {
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture(String name, GenerationStrategy strategy) throws IOException {
+        var fixture = new ProcessorFixture(projectDir.resolve(name))
+                .locale(Locale.ROOT, 3, "value % 10 == 1 && value % 100 != 11 ? 0 : value % 10 >= 2 && value % 10 <= 4 && (value % 100 < 10 || value % 100 >= 20) ? 1 : 2")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .bundle(Locale.ROOT,
+                        "greeting = Привет, {0:name}!",
+                        "files = {0:count:long} #{file[count]}",
+                        "file[0] = файл",
+                        "file[1] = файла",
+                        "file[2] = файлов")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "files = {count} #{file[count]}",
+                        "file[0] = file",
+                        "file[1] = files");
+        fixture.settings.getGenerationStrategy().set(strategy);
+        return fixture;
+    }
+
+    @Test
+    void generatesSubclassPerLocale() throws IOException {
+        var messages = fixture("subclass", GenerationStrategy.SUBCLASS).compile();
+
+        assertTrue(Modifier.isAbstract(messages.type().getModifiers()));
+        assertEquals(2, messages.type().getPermittedSubclasses().length);
+        assertEquals("Привет, Мир!", messages.get("ROOT", "greeting", "Мир"));
+        assertEquals("Hello, World!", messages.get("EN", "greeting", "World"));
+    }
+
+    @Test
+    void matchesSwitchStrategy() throws IOException {
+        var switchMessages = fixture("switch", GenerationStrategy.SWITCH).compile();
+        var subclassMessages = fixture("subclass", GenerationStrategy.SUBCLASS).compile();
+
+        for (String tag : new String[]{"ROOT", "EN"}) {
+            for (long count : new long[]{0, 1, 2, 5, 11, 21, 22, 111}) {
+                assertEquals(switchMessages.get(tag, "files", count), subclassMessages.get(tag, "files", count));
+            }
+        }
+    }
+}
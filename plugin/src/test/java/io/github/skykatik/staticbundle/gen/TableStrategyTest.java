@@ -0,0 +1,75 @@
+package io.github.skykatik.staticbundle.gen;
+
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableStrategyTest {
+
+    @TempDir
+    Path projectDir;
+
+    ProcessorFixture fixture(String name, GenerationStrategy strategy) throws IOException {
+        var fixture = new ProcessorFixture(projectDir.resolve(name))
+                .locale(Locale.ROOT, 3, "value % 10 == 1 && value % 100 != 11 ? 0 : value % 10 >= 2 && value % 10 <= 4 && (value % 100 < 10 || value % 100 >= 20) ? 1 : 2")
+                .locale(Locale.ENGLISH, 2, "value == 1 ? 0 : 1")
+                .bundle(Locale.ROOT,
+                        "greeting = Привет, {0:name}!",
+                        "order = {0:first} после {1:second}",
+                        "files = {0:count:long} #{file[count]}",
+                        "file[0] = файл",
+                        "file[1] = файла",
+                        "file[2] = файлов")
+                .bundle(Locale.ENGLISH,
+                        "greeting = Hello, {name}!",
+                        "order = {second} before {first}",
+                        "files = {count} #{file[count]}",
+                        "file[0] = file",
+                        "file[1] = files");
+        fixture.settings.getGenerationStrategy().set(strategy);
+        return fixture;
+    }
+
+    @Test
+    void matchesSwitchStrategy() throws IOException {
+        var switchMessages = fixture("switch", GenerationStrategy.SWITCH).compile();
+        var tableMessages = fixture("table", GenerationStrategy.TABLE).compile();
+
+        for (String tag : new String[]{"ROOT", "EN"}) {
+            assertEquals(switchMessages.get(tag, "greeting", "x"), tableMessages.get(tag, "greeting", "x"));
+            assertEquals(switchMessages.get(tag, "order", "a", "b"), tableMessages.get(tag, "order", "a", "b"));
+            for (long count : new long[]{0, 1, 2, 5, 11, 21, 22, 111}) {
+                assertEquals(switchMessages.get(tag, "files", count), tableMessages.get(tag, "files", count));
+            }
+        }
+    }
+
+    @Test
+    void sharesAccessorsOfMessagesWithSameShape() throws IOException {
+        String source = fixture("table", GenerationStrategy.TABLE).generate();
+
+        assertFalse(ProcessorFixture.method(source, "String greeting(").contains("switch"));
+        assertTrue(ProcessorFixture.method(source, "String order(").contains("switch"));
+    }
+
+    @Test
+    void splitsLargeTablesIntoChunks() throws IOException {
+        String text = "x".repeat(TextTable.MAX_CHUNK_LENGTH / 2);
+        var fixture = new ProcessorFixture(projectDir)
+                .locale(Locale.ROOT, 1, "0")
+                .bundle(Locale.ROOT, "a = a" + text, "b = b" + text, "c = c" + text);
+        fixture.settings.getGenerationStrategy().set(GenerationStrategy.TABLE);
+        var messages = fixture.compile();
+
+        assertEquals("b" + text, messages.get("ROOT", "b"));
+        assertEquals("c" + text, messages.get("ROOT", "c"));
+    }
+}
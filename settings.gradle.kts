@@ -2,6 +2,7 @@ rootProject.name = "StaticBundle"
 
 include("core")
 include("test")
+include("benchmarks")
 
 pluginManagement {
     includeBuild("plugin")
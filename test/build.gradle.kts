@@ -1,3 +1,6 @@
+import io.github.skykatik.staticbundle.plugin.ConcatStrategy
+import io.github.skykatik.staticbundle.plugin.ContentTransformer
+import io.github.skykatik.staticbundle.plugin.GenerationStrategy
 import java.util.*
 
 plugins {
@@ -21,9 +24,14 @@ staticBundle {
     sourceSetSettings.create("main") {
         resourceFilenameFormat.set("messages{locale}.properties")
         messageSourceClassName.set("io.github.skykatik.staticbundle.test.CustomMessageSource")
-        contentTransformer.set { "*".repeat(it.length) }
+        contentTransformer.set(Masking())
+        appendMethods.set(true)
+        utf8Methods.set(true)
+        pluralTableSize.set(1024)
 
         settings {
+            cldrPlurals()
+
             setting {
                 locale.set(Locale.ROOT)
                 pluralForms.set(4)
@@ -32,8 +40,6 @@ staticBundle {
 
             setting {
                 locale.set(Locale.ENGLISH)
-                pluralForms.set(2)
-                pluralFunction.set("value == 1 ? 0 : 1")
             }
         }
     }
@@ -41,7 +47,10 @@ staticBundle {
     sourceSetSettings.create("another") {
         resourceFilenameFormat.set("messages{locale}.properties")
         messageSourceClassName.set("test.SuperMsgSource")
-//        contentTransformer.set(ContentTransformer { it.replace('a', '1') })
+        generationStrategy.set(GenerationStrategy.SUBCLASS)
+        lazyLocales.set(true)
+        concatStrategy.set(ConcatStrategy.BUILDER)
+//        contentTransformer.set(ContentTransformer.replace("a", "1"))
 
         settings {
             setting {
@@ -58,3 +67,8 @@ staticBundle {
         }
     }
 }
+
+// Transformer is a nested input of the task, so it is a named class rather than a lambda
+class Masking : ContentTransformer {
+    override fun transform(text: String) = "*".repeat(text.length)
+}